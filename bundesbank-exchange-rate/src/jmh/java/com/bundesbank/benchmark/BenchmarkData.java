@@ -0,0 +1,137 @@
+package com.bundesbank.benchmark;
+
+import com.bundesbank.store.RateSnapshot;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+
+// Deterministic offline data for the benchmarks: business-day rate histories and
+// SDMX-JSON documents laid out like the Bundesbank BBEX3 responses.
+final class BenchmarkData {
+    static final LocalDate HISTORY_START = LocalDate.of(1999, 1, 4);
+    static final LocalDate HISTORY_END = LocalDate.of(2025, 7, 10);
+    static final List<String> CURRENCIES = Arrays.asList(
+            "AUD", "BGN", "BRL", "CAD", "CHF", "CNY", "CZK", "DKK", "GBP", "HKD", "HUF", "IDR", "ILS", "INR", "ISK",
+            "JPY", "KRW", "MXN", "MYR", "NOK", "NZD", "PHP", "PLN", "RON", "RUB", "SEK", "SGD", "THB", "TRY", "USD", "ZAR");
+
+    private BenchmarkData() {
+    }
+
+    static List<LocalDate> businessDays(LocalDate start, LocalDate end) {
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    // Stable pseudo rate with four decimals, different per currency and drifting over the year
+    static BigDecimal rate(String currency, LocalDate date) {
+        long base = 5_000 + Math.floorMod(currency.hashCode(), 20_000) * 100L;
+        long drift = base * (date.getDayOfYear() % 365) / 3_650;
+        return BigDecimal.valueOf(base + drift, 4);
+    }
+
+    static Map<LocalDate, Map<String, BigDecimal>> history(LocalDate start, LocalDate end) {
+        Map<LocalDate, Map<String, BigDecimal>> ratesByDate = new HashMap<>();
+        for (LocalDate day : businessDays(start, end)) {
+            Map<String, BigDecimal> rates = new HashMap<>();
+            for (String currency : CURRENCIES) {
+                rates.put(currency, rate(currency, day));
+            }
+            ratesByDate.put(day, rates);
+        }
+        return ratesByDate;
+    }
+
+    static RateSnapshot snapshot(LocalDate start, LocalDate end) {
+        return RateSnapshot.builder().putAll(history(start, end)).build();
+    }
+
+    // Single-currency SDMX-JSON response covering the business days in [start, end]
+    static byte[] sdmxJson(String currency, LocalDate start, LocalDate end) {
+        List<LocalDate> days = businessDays(start, end);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator json = new JsonFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeObjectFieldStart("meta");
+            json.writeStringField("schema", "https://raw.githubusercontent.com/sdmx-twg/sdmx-json/master/data-message/tools/schemas/1.0/sdmx-json-data-schema.json");
+            json.writeStringField("id", "IREF" + currency);
+            json.writeBooleanField("test", false);
+            json.writeStringField("prepared", end + "T10:00:00");
+            json.writeArrayFieldStart("content-languages");
+            json.writeString("en");
+            json.writeEndArray();
+            json.writeEndObject();
+
+            json.writeObjectFieldStart("data");
+            json.writeObjectFieldStart("structure");
+            json.writeObjectFieldStart("dimensions");
+            json.writeArrayFieldStart("dataSet");
+            json.writeEndArray();
+            json.writeArrayFieldStart("series");
+            writeDimension(json, "BBK_STD_FREQ", 0, Collections.singletonList("D"));
+            writeDimension(json, "BBK_STD_CURRENCY", 1, Collections.singletonList(currency));
+            json.writeEndArray();
+            json.writeArrayFieldStart("observation");
+            List<String> periods = new ArrayList<>(days.size());
+            days.forEach(day -> periods.add(day.toString()));
+            writeDimension(json, "TIME_PERIOD", 6, periods);
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndObject();
+
+            json.writeArrayFieldStart("dataSets");
+            json.writeStartObject();
+            json.writeStringField("action", "Information");
+            json.writeStringField("valid-from", end.toString());
+            json.writeObjectFieldStart("series");
+            json.writeObjectFieldStart("0:0:0:0:0:0");
+            json.writeArrayFieldStart("attributes");
+            json.writeNumber(0);
+            json.writeEndArray();
+            json.writeObjectFieldStart("observations");
+            for (int i = 0; i < days.size(); i++) {
+                json.writeArrayFieldStart(Integer.toString(i));
+                json.writeString(rate(currency, days.get(i)).toPlainString());
+                json.writeEndArray();
+            }
+            json.writeEndObject();
+            json.writeEndObject();
+            json.writeEndObject();
+            json.writeEndObject();
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeDimension(JsonGenerator json, String id, int keyPosition, List<String> values)
+            throws IOException {
+        json.writeStartObject();
+        json.writeStringField("id", id);
+        json.writeStringField("name", id);
+        json.writeNumberField("keyPosition", keyPosition);
+        json.writeArrayFieldStart("values");
+        for (String value : values) {
+            json.writeStartObject();
+            json.writeStringField("id", value);
+            json.writeStringField("name", value);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,145 @@
+package com.bundesbank.benchmark;
+
+import com.bundesbank.MainSpringBootApplication;
+import com.bundesbank.repository.ExchangeRateBulkLoader;
+import com.bundesbank.service.ExchangeRateService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// HTTP load test of the read endpoints: starts the application once per serving mode (servlet
+// controller on Tomcat's platform thread pool, the same on virtual threads, router functions on Netty)
+// on the same synthetic data and drives it with the same request mix over many concurrent keep-alive
+// connections.
+// Arguments: --connections=1000 --requests=200000 --modes=servlet,virtual,reactive
+public class LoadTest {
+
+    public static void main(String[] args) {
+        // The devtools restarter would relaunch main in its own class loader and lose the serving mode
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        int connections = intArg(args, "connections", 1000);
+        int requests = intArg(args, "requests", 200_000);
+        List<String> modes = Arrays.asList(stringArg(args, "modes", "servlet,virtual,reactive").split(","));
+
+        List<LocalDate> businessDays = BenchmarkData.businessDays(BenchmarkData.HISTORY_START, BenchmarkData.HISTORY_END);
+        System.out.printf("%-10s %10s %8s %10s %9s %9s %9s%n", "mode", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (String mode : modes) {
+            if ("virtual".equals(mode) && Runtime.version().feature() < 21) {
+                System.out.printf("%-10s skipped, virtual threads need JDK 21+%n", mode);
+                continue;
+            }
+            try (ConfigurableApplicationContext context = start(mode)) {
+                int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+                // Warm-up round: JIT, connection setup and the lazily built structures
+                run(port, connections, Math.max(1, requests / 5), businessDays);
+                Result result = run(port, connections, requests, businessDays);
+                System.out.printf("%-10s %10d %8d %10.0f %9.2f %9.2f %9.2f%n", mode, requests, result.errors,
+                        requests / result.seconds, result.percentile(0.50), result.percentile(0.99), result.percentile(1.0));
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String mode) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MainSpringBootApplication.class)
+                // Command-line arguments, so they take precedence over application.properties
+                .run("--spring.main.web-application-type=" + ("reactive".equals(mode) ? "reactive" : "servlet"),
+                        "--exchange-rate.virtual-threads=" + "virtual".equals(mode),
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.com.bundesbank=WARN",
+                        "--exchange-rate.sync.on-startup=false",
+                        "--exchange-rate.snapshot.file=",
+                        "--exchange-rate.update-cron=-");
+        context.getBean(ExchangeRateBulkLoader.class)
+                .upsert(BenchmarkData.history(BenchmarkData.HISTORY_START, BenchmarkData.HISTORY_END));
+        // Reloads the in-memory store from the rows written above
+        context.getBean(ExchangeRateService.class).initializeData();
+        return context;
+    }
+
+    // Three in four requests are single-rate lookups, the rest conversions
+    private static String randomPath(List<LocalDate> businessDays) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate date = businessDays.get(random.nextInt(businessDays.size()));
+        String currency = BenchmarkData.CURRENCIES.get(random.nextInt(BenchmarkData.CURRENCIES.size()));
+        return random.nextInt(4) == 0
+                ? "/api/convert?currency=" + currency + "&amount=100.00&date=" + date
+                : "/api/rates/" + date + "/" + currency;
+    }
+
+    private static Result run(int port, int connections, int requests, List<LocalDate> businessDays) {
+        ConnectionProvider pool = ConnectionProvider.builder("load-test")
+                .maxConnections(connections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient client = HttpClient.create(pool).baseUrl("http://localhost:" + port);
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+        Flux.range(0, requests)
+                .flatMap(i -> {
+                    long sent = System.nanoTime();
+                    return client.get().uri(randomPath(businessDays))
+                            .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                            .doOnNext(status -> {
+                                latencies[i] = System.nanoTime() - sent;
+                                if (status != 200) {
+                                    errors.incrementAndGet();
+                                }
+                            })
+                            .onErrorResume(e -> {
+                                latencies[i] = System.nanoTime() - sent;
+                                errors.incrementAndGet();
+                                return Mono.empty();
+                            });
+                }, connections)
+                .blockLast();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.dispose();
+        Arrays.sort(latencies);
+        return new Result(latencies, errors.get(), seconds);
+    }
+
+    private static int intArg(String[] args, String name, int defaultValue) {
+        return Integer.parseInt(stringArg(args, name, String.valueOf(defaultValue)));
+    }
+
+    private static String stringArg(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        return Arrays.stream(args)
+                .filter(arg -> arg.startsWith(prefix))
+                .map(arg -> arg.substring(prefix.length()))
+                .findFirst()
+                .orElse(defaultValue);
+    }
+
+    private static final class Result {
+        private final long[] sortedLatencies;
+        private final int errors;
+        private final double seconds;
+
+        private Result(long[] sortedLatencies, int errors, double seconds) {
+            this.sortedLatencies = sortedLatencies;
+            this.errors = errors;
+            this.seconds = seconds;
+        }
+
+        // In milliseconds
+        private double percentile(double p) {
+            int idx = (int) Math.ceil(p * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, idx)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.bundesbank.benchmark;
+
+import com.bundesbank.MainSpringBootApplication;
+import com.bundesbank.dto.ConversionRequest;
+import com.bundesbank.dto.ConversionResult;
+import com.bundesbank.dto.DatedRate;
+import com.bundesbank.dto.ExchangeRateResponse;
+import com.bundesbank.exception.RateNotFoundException;
+import com.bundesbank.repository.ExchangeRateBulkLoader;
+import com.bundesbank.service.ExchangeRateService;
+import com.bundesbank.store.DateLookupPolicy;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Service-level lookups and conversions against a populated in-memory H2 database.
+// The application starts without the Bundesbank sync, so the run is fully offline.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+    private ConfigurableApplicationContext context;
+    private ExchangeRateService service;
+    private List<LocalDate> businessDays;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MainSpringBootApplication.class)
+                .web(WebApplicationType.NONE)
+                // Command-line arguments, so they take precedence over application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework=WARN",
+                        "--exchange-rate.sync.on-startup=false",
+                        "--exchange-rate.snapshot.file=",
+                        "--exchange-rate.update-cron=-");
+        context.getBean(ExchangeRateBulkLoader.class)
+                .upsert(BenchmarkData.history(BenchmarkData.HISTORY_START, BenchmarkData.HISTORY_END));
+        service = context.getBean(ExchangeRateService.class);
+        // Reloads the in-memory store from the rows written above
+        service.initializeData();
+        businessDays = BenchmarkData.businessDays(BenchmarkData.HISTORY_START, BenchmarkData.HISTORY_END);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private LocalDate randomBusinessDay() {
+        return businessDays.get(ThreadLocalRandom.current().nextInt(businessDays.size()));
+    }
+
+    private String randomCurrency() {
+        return BenchmarkData.CURRENCIES.get(ThreadLocalRandom.current().nextInt(BenchmarkData.CURRENCIES.size()));
+    }
+
+    @Benchmark
+    public ConversionResult convertToEur() {
+        return service.convertToEur(new ConversionRequest(randomCurrency(), new BigDecimal("100.00"), randomBusinessDay()));
+    }
+
+    @Benchmark
+    public ConversionResult convertCrossCurrency() {
+        return service.convert(new ConversionRequest("USD", new BigDecimal("100.00"), randomBusinessDay()), "JPY");
+    }
+
+    // Saturdays have no rates: the not-found path as hit by clients probing weekends and holidays
+    @Benchmark
+    public Object convertToEurMissingDate() {
+        LocalDate saturday = randomBusinessDay().with(TemporalAdjusters.next(DayOfWeek.SATURDAY));
+        try {
+            return service.convertToEur(new ConversionRequest(randomCurrency(), new BigDecimal("100.00"), saturday));
+        } catch (RateNotFoundException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public ExchangeRateResponse getExchangeRates() {
+        return service.getExchangeRates(randomBusinessDay());
+    }
+
+    @Benchmark
+    public Optional<BigDecimal> getExchangeRateForCurrency() {
+        return service.getExchangeRateForCurrency(randomBusinessDay(), randomCurrency());
+    }
+
+    // Weekend dates fall back to the previous business day
+    @Benchmark
+    public Optional<DatedRate> getExchangeRateForCurrencyPrevious() {
+        return service.getExchangeRateForCurrency(randomBusinessDay().plusDays(1), randomCurrency(),
+                DateLookupPolicy.PREVIOUS);
+    }
+}
@@ -0,0 +1,72 @@
+package com.bundesbank.benchmark;
+
+import com.bundesbank.dto.BundesbankApiResponse;
+import com.bundesbank.service.SdmxJsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// SDMX-JSON response handling: the streaming SdmxJsonParser against the previous
+// approach of binding the whole BundesbankApiResponse tree and walking it.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+    private static final String CURRENCY = "USD";
+
+    @Param({"DAY", "YEAR", "FULL_HISTORY"})
+    public String fixture;
+
+    // Modules registered like the application mapper (LocalDate keys in BundesbankApiResponse)
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SdmxJsonParser parser = new SdmxJsonParser(objectMapper);
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        LocalDate end = BenchmarkData.HISTORY_END;
+        switch (fixture) {
+            case "DAY":
+                body = BenchmarkData.sdmxJson(CURRENCY, end, end);
+                break;
+            case "YEAR":
+                body = BenchmarkData.sdmxJson(CURRENCY, end.minusYears(1), end);
+                break;
+            default:
+                body = BenchmarkData.sdmxJson(CURRENCY, BenchmarkData.HISTORY_START, end);
+        }
+    }
+
+    @Benchmark
+    public Map<LocalDate, BigDecimal> streamingParser() throws IOException {
+        Map<LocalDate, BigDecimal> rates = new HashMap<>();
+        parser.parse(new ByteArrayInputStream(body), CURRENCY, (date, currency, rate) -> rates.put(date, rate));
+        return rates;
+    }
+
+    @Benchmark
+    public Map<LocalDate, BigDecimal> treeBinding() throws IOException {
+        BundesbankApiResponse response = objectMapper.readValue(new ByteArrayInputStream(body), BundesbankApiResponse.class);
+        BundesbankApiResponse.Series series = response.getData().getDataSets().get(0).getSeries().values().iterator().next();
+        List<String> timePeriods = response.getData().getTimePeriods();
+        Map<LocalDate, BigDecimal> rates = new HashMap<>();
+        series.getObservations().forEach((obsIndex, values) -> {
+            int index = Integer.parseInt(obsIndex);
+            if (index < timePeriods.size() && values != null && !values.isEmpty() && values.get(0) != null) {
+                rates.put(LocalDate.parse(timePeriods.get(index)), new BigDecimal(values.get(0)));
+            }
+        });
+        return rates;
+    }
+}
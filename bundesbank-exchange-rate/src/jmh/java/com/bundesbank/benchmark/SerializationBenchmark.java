@@ -0,0 +1,69 @@
+package com.bundesbank.benchmark;
+
+import com.bundesbank.dto.ExchangeRateDto;
+import com.bundesbank.service.RateStreamWriter;
+import com.bundesbank.store.RateRange;
+import com.bundesbank.store.RateSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialization of the full /api/rates history: streaming from the snapshot
+// against building the ExchangeRateDto list and handing it to Jackson.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final RateStreamWriter writer = new RateStreamWriter(objectMapper);
+    // Discards everything; unlike OutputStream.nullOutputStream() it keeps accepting writes after close()
+    private final OutputStream out = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+    private RateRange allRates;
+
+    @Setup
+    public void setUp() {
+        RateSnapshot snapshot = BenchmarkData.snapshot(BenchmarkData.HISTORY_START, BenchmarkData.HISTORY_END);
+        int[] columns = new int[snapshot.currencyCount()];
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = c;
+        }
+        allRates = new RateRange(snapshot, 0, snapshot.dayCount(), columns, null);
+    }
+
+    @Benchmark
+    public void streamFromSnapshot() throws IOException {
+        writer.writeJson(allRates, out);
+    }
+
+    @Benchmark
+    public void dtoList() throws IOException {
+        RateSnapshot snapshot = allRates.getSnapshot();
+        List<ExchangeRateDto> dtos = new ArrayList<>(snapshot.dayCount());
+        for (int day = 0; day < snapshot.dayCount(); day++) {
+            dtos.add(ExchangeRateDto.builder()
+                    .date(snapshot.date(day))
+                    .eurToForeignRates(snapshot.ratesForDay(day))
+                    .build());
+        }
+        objectMapper.writeValue(out, dtos);
+    }
+}
@@ -1,14 +1,72 @@
 package com.bundesbank.config;
 
+import com.bundesbank.service.CircuitBreaker;
+import com.bundesbank.service.ConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Configuration
 public class BundesbankApiConfig {
 
+    // Dedicated client and threads for the Bundesbank API, so fetches never run on the
+    // common ForkJoinPool. The JDK client keeps idle connections alive and reuses them.
+    @Bean
+    public HttpClient bundesbankHttpClient(
+            @Value("${bundesbank.api.max-in-flight:8}") int maxInFlight,
+            @Value("${bundesbank.api.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${exchange-rate.virtual-threads:false}") boolean virtualThreads) {
+        return HttpClient.newBuilder()
+                .executor(fetchExecutor("bundesbank-fetch-", maxInFlight, virtualThreads))
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    // Response bodies are read and parsed here rather than on the client's threads, so a body that
+    // stalls mid-transfer cannot hold up the client's own work for other requests
+    @Bean
+    public ExecutorService bundesbankParseExecutor(
+            @Value("${bundesbank.api.max-in-flight:8}") int maxInFlight,
+            @Value("${exchange-rate.virtual-threads:false}") boolean virtualThreads) {
+        return fetchExecutor("bundesbank-parse-", maxInFlight, virtualThreads);
+    }
+
+    @Bean
+    public ConcurrencyLimiter bundesbankFetchLimiter(@Value("${bundesbank.api.max-in-flight:8}") int maxInFlight) {
+        return new ConcurrencyLimiter(maxInFlight);
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public CircuitBreaker bundesbankCircuitBreaker(
+            @Value("${bundesbank.api.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${bundesbank.api.circuit-breaker.open-duration:60s}") Duration openDuration) {
+        return new CircuitBreaker(failureThreshold, openDuration);
+    }
+
+    // Reading and parsing a body blocks, so with virtual threads every fetch gets its own; the limiter
+    // still bounds the requests in flight
+    private ExecutorService fetchExecutor(String namePrefix, int maxInFlight, boolean virtualThreads) {
+        if (virtualThreads) {
+            Optional<ExecutorService> executor = VirtualThreads.newThreadPerTaskExecutor(namePrefix);
+            if (executor.isPresent()) {
+                return executor.get();
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(Math.max(2, maxInFlight), threadFactory);
     }
-}
\ No newline at end of file
+}
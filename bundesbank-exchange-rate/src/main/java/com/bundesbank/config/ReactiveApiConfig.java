@@ -0,0 +1,41 @@
+package com.bundesbank.config;
+
+import com.bundesbank.controller.ReactiveExchangeRateHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+// Opt-in non-blocking serving mode (spring.main.web-application-type=reactive). ExchangeRateController
+// is only registered on the servlet stack; here its endpoints are served by router functions. Fixed
+// paths come before /api/rates/{date} and /api/rates/{date}/{currency}, which would match them too.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveApiConfig {
+
+    @Bean
+    public RouterFunction<ServerResponse> exchangeRateRoutes(ReactiveExchangeRateHandler handler) {
+        return route(GET("/api/currencies"), handler::getAvailableCurrencies)
+                .andRoute(GET("/api/rates"), handler::getAllExchangeRates)
+                .andRoute(GET("/api/rates/changes"), handler::getRateChanges)
+                .andRoute(GET("/api/rates/timeseries"), handler::getTimeSeries)
+                .andRoute(GET("/api/rates/{date}"), handler::getRates)
+                .andRoute(GET("/api/rates/{currency}/stats"), handler::getRateStatistics)
+                .andRoute(GET("/api/rates/{currency}/series"), handler::getRateSeries)
+                .andRoute(GET("/api/rates/{date}/{currency}"), handler::getExchangeRateForCurrency)
+                .andRoute(GET("/api/convert"), handler::convert)
+                .andRoute(POST("/api/convert/batch"), handler::convertBatch);
+    }
+
+    // Tomcat is on the classpath for the servlet mode and would otherwise be picked for reactive too
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,39 @@
+package com.bundesbank.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Virtual-thread executors on JDK 21+. The code is compiled for Java 11, so the JDK 21 API
+// (Thread.ofVirtual, Executors.newThreadPerTaskExecutor) is looked up reflectively; on older
+// runtimes no executor is returned and callers keep their platform-thread pools.
+@Slf4j
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    // An executor starting one virtual thread per task, named prefix0, prefix1, ...
+    public static Optional<ExecutorService> newThreadPerTaskExecutor(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return Optional.of((ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory));
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            log.warn("Virtual threads need JDK 21 or later (running on {}), using platform threads",
+                    System.getProperty("java.version"));
+            return Optional.empty();
+        } catch (InvocationTargetException e) {
+            // JDK 19/20 without --enable-preview
+            log.warn("Virtual threads are not available: {}, using platform threads", e.getCause().toString());
+            return Optional.empty();
+        }
+    }
+}
@@ -1,31 +1,60 @@
     package com.bundesbank.controller;
 
+    import com.bundesbank.dto.BatchConversionResult;
     import com.bundesbank.dto.ConversionRequest;
     import com.bundesbank.dto.ConversionResult;
-    import com.bundesbank.dto.ExchangeRateDto;
     import com.bundesbank.dto.ExchangeRateResponse;
+    import com.bundesbank.dto.RateChangeEvent;
+    import com.bundesbank.dto.RateStatistics;
+    import com.bundesbank.dto.RateVersion;
+    import com.bundesbank.dto.SeriesPoint;
     import com.bundesbank.exception.ExchangeRateException;
+    import com.bundesbank.exception.RateNotFoundException;
     import com.bundesbank.service.ExchangeRateService;
-    import javassist.NotFoundException;
+    import com.bundesbank.service.RateChangeFeed;
+    import com.bundesbank.service.RateStreamWriter;
+    import com.bundesbank.store.DateLookupPolicy;
+    import com.bundesbank.store.FillPolicy;
+    import com.bundesbank.store.RateRange;
+    import com.bundesbank.store.RateTimeSeries;
+    import com.bundesbank.store.RollupInterval;
+    import com.bundesbank.store.SeriesAggregation;
     import lombok.RequiredArgsConstructor;
     import lombok.extern.slf4j.Slf4j;
+    import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
     import org.springframework.format.annotation.DateTimeFormat;
+    import org.springframework.http.HttpHeaders;
+    import org.springframework.http.MediaType;
     import org.springframework.http.ResponseEntity;
+    import org.springframework.http.codec.ServerSentEvent;
     import org.springframework.validation.annotation.Validated;
     import org.springframework.web.bind.annotation.*;
+    import org.springframework.web.context.request.WebRequest;
+    import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+    import reactor.core.publisher.Flux;
 
     import javax.validation.constraints.DecimalMin;
+    import javax.validation.constraints.Positive;
     import java.math.BigDecimal;
     import java.time.LocalDate;
     import java.util.List;
+    import java.util.Optional;
 
     @RestController
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
     @RequestMapping("/api")
     @RequiredArgsConstructor
     @Validated
     @Slf4j
     public class ExchangeRateController {
+        private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+        private static final String RATE_DATE_HEADER = "X-Rate-Date";
+        private static final String TEXT_CSV_VALUE = "text/csv";
+
         private final ExchangeRateService exchangeRateService;
+        private final RateStreamWriter rateStreamWriter;
+        private final RateCacheControl rateCacheControl;
+        private final RateChangeFeed rateChangeFeed;
 
         // Get all available currencies
         @GetMapping("/currencies")
@@ -34,59 +63,204 @@
             return ResponseEntity.ok(exchangeRateService.getAvailableCurrencies());
         }
 
-        // Get all exchange rates for all dates
-        @GetMapping("/rates")
-        public ResponseEntity<List<ExchangeRateDto>> getAllExchangeRates() {
-            log.info("Fetching all exchange rates");
-            return ResponseEntity.ok(exchangeRateService.getAllExchangeRates());
+        // Get exchange rates for all dates, optionally filtered by date range and currencies.
+        // The body is streamed; with a limit, X-Next-Cursor holds the 'after' value of the next page.
+        @GetMapping(value = "/rates", produces = MediaType.APPLICATION_JSON_VALUE)
+        public ResponseEntity<StreamingResponseBody> getAllExchangeRates(
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                @RequestParam(required = false) List<String> currencies,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate after,
+                @RequestParam(required = false) @Positive Integer limit) {
+            log.info("Fetching exchange rates from {} to {} for {} (after {}, limit {})",
+                    from, to, currencies, after, limit);
+            RateRange range = exchangeRateService.getExchangeRateRange(from, to, currencies, after, limit);
+            return streamed(range, MediaType.APPLICATION_JSON, out -> rateStreamWriter.writeJson(range, out));
+        }
+
+        // Same rates as a columnar CSV (Accept: text/csv or ?format=csv)
+        @GetMapping(value = "/rates", produces = TEXT_CSV_VALUE)
+        public ResponseEntity<StreamingResponseBody> getAllExchangeRatesCsv(
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                @RequestParam(required = false) List<String> currencies,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate after,
+                @RequestParam(required = false) @Positive Integer limit) {
+            log.info("Fetching exchange rates as CSV from {} to {} for {} (after {}, limit {})",
+                    from, to, currencies, after, limit);
+            RateRange range = exchangeRateService.getExchangeRateRange(from, to, currencies, after, limit);
+            return streamed(range, MediaType.valueOf(TEXT_CSV_VALUE), out -> rateStreamWriter.writeCsv(range, out));
+        }
+
+        // Same rates as columnar CBOR with dates and currency codes sent once (Accept: application/cbor or ?format=cbor)
+        @GetMapping(value = "/rates", produces = MediaType.APPLICATION_CBOR_VALUE)
+        public ResponseEntity<StreamingResponseBody> getAllExchangeRatesCbor(
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                @RequestParam(required = false) List<String> currencies,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate after,
+                @RequestParam(required = false) @Positive Integer limit) {
+            log.info("Fetching exchange rates as CBOR from {} to {} for {} (after {}, limit {})",
+                    from, to, currencies, after, limit);
+            RateRange range = exchangeRateService.getExchangeRateRange(from, to, currencies, after, limit);
+            return streamed(range, MediaType.APPLICATION_CBOR, out -> rateStreamWriter.writeCbor(range, out));
+        }
+
+        // Time series of several currencies in one response, each date sent once and one column per currency.
+        // fill=forward adds every calendar day, each currency carrying its latest rate.
+        @GetMapping(value = "/rates/timeseries", produces = MediaType.APPLICATION_JSON_VALUE)
+        public ResponseEntity<StreamingResponseBody> getTimeSeries(
+                @RequestParam(required = false) List<String> currencies,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                @RequestParam(defaultValue = "NONE") String fill) {
+            log.info("Fetching time series for {} from {} to {} (fill {})", currencies, from, to, fill);
+            RateTimeSeries series = exchangeRateService.getTimeSeries(currencies, from, to, FillPolicy.parse(fill));
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> rateStreamWriter.writeTimeSeriesJson(series, out));
+        }
+
+        // Same time series as CSV (Accept: text/csv or ?format=csv)
+        @GetMapping(value = "/rates/timeseries", produces = TEXT_CSV_VALUE)
+        public ResponseEntity<StreamingResponseBody> getTimeSeriesCsv(
+                @RequestParam(required = false) List<String> currencies,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                @RequestParam(defaultValue = "NONE") String fill) {
+            log.info("Fetching time series as CSV for {} from {} to {} (fill {})", currencies, from, to, fill);
+            RateTimeSeries series = exchangeRateService.getTimeSeries(currencies, from, to, FillPolicy.parse(fill));
+            return ResponseEntity.ok().contentType(MediaType.valueOf(TEXT_CSV_VALUE))
+                    .body(out -> rateStreamWriter.writeTimeSeriesCsv(series, out));
+        }
+
+        private ResponseEntity<StreamingResponseBody> streamed(RateRange range, MediaType contentType,
+                                                               StreamingResponseBody body) {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(contentType);
+            if (range.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, range.getNextCursor().toString());
+            }
+            return response.body(body);
+        }
+
+        private ResponseEntity.BodyBuilder cached(RateVersion version) {
+            return ResponseEntity.ok()
+                    .eTag(version.getEtag())
+                    .header(HttpHeaders.CACHE_CONTROL, rateCacheControl.headerValue(version));
+        }
+
+        // Server-Sent Events feed of new and revised rates, instead of polling today's rates. Resumes after
+        // the Last-Event-ID header (sent by EventSource on reconnect) or ?since=; otherwise only new changes.
+        @GetMapping(value = "/rates/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        public Flux<ServerSentEvent<RateChangeEvent>> getRateChanges(
+                @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                @RequestParam(required = false) Long since) {
+            log.info("Rate change subscriber connected (Last-Event-ID {}, since {})", lastEventId, since);
+            return rateChangeFeed.subscribe(lastEventId != null ? lastEventId : since);
         }
 
         // Get exchange rates for a specific date
         @GetMapping("/rates/{date}")
         public ResponseEntity<ExchangeRateResponse> getRates(
-                @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+                @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                @RequestParam(defaultValue = "STRICT") String policy,
+                WebRequest webRequest) {
             log.info("Fetching exchange rates for date: {}", date);
+            DateLookupPolicy lookupPolicy = DateLookupPolicy.parse(policy);
+            Optional<RateVersion> version = exchangeRateService.getRateVersion(date, null, lookupPolicy);
+            if (version.isPresent() && webRequest.checkNotModified(version.get().getEtag())) {
+                return cached(version.get()).build();
+            }
+            ExchangeRateResponse rates = exchangeRateService.findExchangeRates(date, lookupPolicy)
+                    .orElseThrow(() -> ExchangeRateException.miss("No exchange rates found for date: " + date,
+                            "RATE_NOT_FOUND"));
+            return version.map(v -> cached(v).body(rates)).orElseGet(() -> ResponseEntity.ok(rates));
+        }
+
+        // Min, max, mean, standard deviation, first/last and % change of a currency over a date range
+        @GetMapping("/rates/{currency}/stats")
+        public ResponseEntity<RateStatistics> getRateStatistics(
+                @PathVariable String currency,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+            log.info("Fetching {} rate statistics from {} to {}", currency, from, to);
             try {
-                return ResponseEntity.ok(exchangeRateService.getExchangeRates(date));
-            } catch (NotFoundException ex) {
-                throw new ExchangeRateException("No exchange rates found for date: " + date, "RATE_NOT_FOUND");
+                return ResponseEntity.ok(exchangeRateService.getRateStatistics(currency, from, to));
+            } catch (RateNotFoundException ex) {
+                throw ExchangeRateException.miss(ex.getMessage(), "RATE_NOT_FOUND");
             }
         }
 
+        // Weekly, monthly or yearly points for a currency: average, last (period-end) rate or OHLC
+        @GetMapping("/rates/{currency}/series")
+        public ResponseEntity<List<SeriesPoint>> getRateSeries(
+                @PathVariable String currency,
+                @RequestParam(defaultValue = "month") String interval,
+                @RequestParam(defaultValue = "avg") String agg,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+            log.info("Fetching {} {} series ({}) from {} to {}", currency, interval, agg, from, to);
+            return ResponseEntity.ok(exchangeRateService.getRateSeries(currency, RollupInterval.parse(interval),
+                    SeriesAggregation.parse(agg), from, to));
+        }
+
         // Get exchange rate for a specific currency on a specific date
         @GetMapping("/rates/{date}/{currency}")
+        // The date the rate was actually taken from is returned in the X-Rate-Date header
         public ResponseEntity<BigDecimal> getExchangeRateForCurrency(
                 @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
-                @PathVariable String currency) {
+                @PathVariable String currency,
+                @RequestParam(defaultValue = "STRICT") String policy,
+                WebRequest webRequest) {
             log.info("Fetching {} rate for date: {}", currency, date);
+            DateLookupPolicy lookupPolicy = DateLookupPolicy.parse(policy);
+            Optional<RateVersion> version = exchangeRateService.getRateVersion(date, currency, lookupPolicy);
+            if (version.isPresent() && webRequest.checkNotModified(version.get().getEtag())) {
+                return cached(version.get())
+                        .header(RATE_DATE_HEADER, version.get().getRateDate().toString())
+                        .build();
+            }
 
             try {
-                return exchangeRateService.getExchangeRateForCurrency(date, currency)
-                        .map(ResponseEntity::ok)
-                        .orElseThrow(() -> new NotFoundException("No rate found for " + currency + " on " + date));
+                return exchangeRateService.getExchangeRateForCurrency(date, currency, lookupPolicy)
+                        .map(dated -> version.map(this::cached).orElseGet(ResponseEntity::ok)
+                                .header(RATE_DATE_HEADER, dated.getDate().toString())
+                                .body(dated.getRate()))
+                        .orElseThrow(() -> ExchangeRateException.RATE_UNAVAILABLE);
             } catch (ExchangeRateException ex) {
                 throw ex; // Re-throw as is
             } catch (Exception ex) {
+                // Not a miss but a fault, so it is logged before it becomes the same client error
+                log.error("Failed to retrieve {} rate for {}", currency, date, ex);
                 throw new ExchangeRateException("Failed to retrieve exchange rate", "RATE_RETRIEVAL_ERROR");
             }
         }
 
-        // Convert amount to EUR for a given currency and date
+        // Convert amount to EUR (or, with 'to', to any other currency via EUR) for a given currency and date
         @GetMapping("/convert")
         public ResponseEntity<ConversionResult> convertToEuro(
                 @RequestParam String currency,
                 @RequestParam @DecimalMin(value = "0.0", inclusive = false) BigDecimal amount,
-                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-            log.info("Converting {} {} to EUR on date {}", amount, currency, date);
+                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                @RequestParam(defaultValue = "EUR") String to,
+                @RequestParam(defaultValue = "STRICT") String policy) {
+            log.info("Converting {} {} to {} on date {}", amount, currency, to, date);
 
             try {
                 ConversionRequest request = new ConversionRequest(currency, amount, date);
-                return ResponseEntity.ok(exchangeRateService.convertToEur(request));
-            } catch (NotFoundException ex) {
-                throw new ExchangeRateException(ex.getMessage(), "CONVERSION_DATA_MISSING");
+                return ResponseEntity.ok(exchangeRateService.convert(request, to, DateLookupPolicy.parse(policy)));
+            } catch (RateNotFoundException ex) {
+                throw ExchangeRateException.miss(ex.getMessage(), "CONVERSION_DATA_MISSING");
             } catch (IllegalArgumentException ex) {
                 throw new ExchangeRateException(ex.getMessage(), "INVALID_CONVERSION_REQUEST");
             }
         }
 
-    }
\ No newline at end of file
+        // Convert a batch of amounts to EUR; results come back in request order with per-item errors
+        @PostMapping("/convert/batch")
+        public ResponseEntity<List<BatchConversionResult>> convertBatchToEuro(
+                @RequestBody List<ConversionRequest> requests) {
+            log.info("Converting batch of {} amounts to EUR", requests.size());
+            return ResponseEntity.ok(exchangeRateService.convertBatch(requests));
+        }
+
+    }
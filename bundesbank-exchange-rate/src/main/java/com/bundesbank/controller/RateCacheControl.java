@@ -0,0 +1,28 @@
+package com.bundesbank.controller;
+
+import com.bundesbank.dto.RateVersion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Cache-Control for the per-date rate responses, shared by the servlet and the reactive API.
+// Rates of a past date never change once published, so those responses may be cached for a long
+// time; today's rates and fallbacks to another day can still change and are cached only briefly.
+@Component
+public class RateCacheControl {
+    @Value("${exchange-rate.http.published-max-age:365d}")
+    private Duration publishedMaxAge;
+
+    @Value("${exchange-rate.http.current-max-age:5m}")
+    private Duration currentMaxAge;
+
+    public String headerValue(RateVersion version) {
+        return version.isPublished()
+                ? CacheControl.maxAge(publishedMaxAge.getSeconds(), TimeUnit.SECONDS).cachePublic().getHeaderValue()
+                        + ", immutable"
+                : CacheControl.maxAge(currentMaxAge.getSeconds(), TimeUnit.SECONDS).cachePublic().getHeaderValue();
+    }
+}
@@ -0,0 +1,268 @@
+package com.bundesbank.controller;
+
+import com.bundesbank.dto.ConversionRequest;
+import com.bundesbank.dto.ExchangeRateResponse;
+import com.bundesbank.dto.RateVersion;
+import com.bundesbank.exception.ExchangeRateException;
+import com.bundesbank.exception.RateNotFoundException;
+import com.bundesbank.service.ExchangeRateService;
+import com.bundesbank.service.RateChangeFeed;
+import com.bundesbank.service.RateStreamWriter;
+import com.bundesbank.store.DateLookupPolicy;
+import com.bundesbank.store.FillPolicy;
+import com.bundesbank.store.RateRange;
+import com.bundesbank.store.RateTimeSeries;
+import com.bundesbank.store.RollupInterval;
+import com.bundesbank.store.SeriesAggregation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Non-blocking variant of the read endpoints of ExchangeRateController, served on Netty when the
+// application runs with spring.main.web-application-type=reactive. Every lookup is answered from the
+// in-memory rate snapshot, so handlers complete on the event loop without touching the database.
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExchangeRateHandler {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String RATE_DATE_HEADER = "X-Rate-Date";
+    private static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+    private static final ParameterizedTypeReference<List<ConversionRequest>> CONVERSION_REQUESTS =
+            new ParameterizedTypeReference<List<ConversionRequest>>() { };
+
+    private final ExchangeRateService exchangeRateService;
+    private final RateStreamWriter rateStreamWriter;
+    private final RateCacheControl rateCacheControl;
+    private final RateChangeFeed rateChangeFeed;
+
+    public Mono<ServerResponse> getAvailableCurrencies(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(exchangeRateService.getAvailableCurrencies());
+    }
+
+    // JSON, CSV or CBOR by ?format= or the Accept header, like the servlet endpoint
+    public Mono<ServerResponse> getAllExchangeRates(ServerRequest request) {
+        RateRange range = exchangeRateService.getExchangeRateRange(dateParam(request, "from"),
+                dateParam(request, "to"), listParam(request, "currencies"), dateParam(request, "after"),
+                limitParam(request));
+        MediaType format = negotiate(request, MediaType.APPLICATION_JSON, TEXT_CSV, MediaType.APPLICATION_CBOR);
+        ServerResponse.BodyBuilder response = ServerResponse.ok();
+        if (range.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, range.getNextCursor().toString());
+        }
+        if (TEXT_CSV.equals(format)) {
+            return streamed(response, format, out -> rateStreamWriter.writeCsv(range, out));
+        }
+        if (MediaType.APPLICATION_CBOR.equals(format)) {
+            return streamed(response, format, out -> rateStreamWriter.writeCbor(range, out));
+        }
+        return streamed(response, format, out -> rateStreamWriter.writeJson(range, out));
+    }
+
+    public Mono<ServerResponse> getTimeSeries(ServerRequest request) {
+        RateTimeSeries series = exchangeRateService.getTimeSeries(listParam(request, "currencies"),
+                dateParam(request, "from"), dateParam(request, "to"),
+                FillPolicy.parse(request.queryParam("fill").orElse("NONE")));
+        MediaType format = negotiate(request, MediaType.APPLICATION_JSON, TEXT_CSV);
+        return TEXT_CSV.equals(format)
+                ? streamed(ServerResponse.ok(), format, out -> rateStreamWriter.writeTimeSeriesCsv(series, out))
+                : streamed(ServerResponse.ok(), format, out -> rateStreamWriter.writeTimeSeriesJson(series, out));
+    }
+
+    public Mono<ServerResponse> getRateStatistics(ServerRequest request) {
+        try {
+            return ServerResponse.ok().bodyValue(exchangeRateService.getRateStatistics(
+                    request.pathVariable("currency"), dateParam(request, "from"), dateParam(request, "to")));
+        } catch (RateNotFoundException ex) {
+            throw ExchangeRateException.miss(ex.getMessage(), "RATE_NOT_FOUND");
+        }
+    }
+
+    public Mono<ServerResponse> getRateSeries(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(exchangeRateService.getRateSeries(request.pathVariable("currency"),
+                RollupInterval.parse(request.queryParam("interval").orElse("month")),
+                SeriesAggregation.parse(request.queryParam("agg").orElse("avg")),
+                dateParam(request, "from"), dateParam(request, "to")));
+    }
+
+    public Mono<ServerResponse> convertBatch(ServerRequest request) {
+        return request.bodyToMono(CONVERSION_REQUESTS)
+                .flatMap(requests -> ServerResponse.ok().bodyValue(exchangeRateService.convertBatch(requests)));
+    }
+
+    public Mono<ServerResponse> getRateChanges(ServerRequest request) {
+        String after = request.headers().firstHeader("Last-Event-ID");
+        if (after == null) {
+            after = request.queryParam("since").orElse(null);
+        }
+        Long sequence;
+        try {
+            sequence = after == null ? null : Long.valueOf(after);
+        } catch (NumberFormatException ex) {
+            throw new ExchangeRateException("Invalid sequence: " + after, "INVALID_SEQUENCE");
+        }
+        return ServerResponse.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(BodyInserters.fromServerSentEvents(rateChangeFeed.subscribe(sequence)));
+    }
+
+    // Like the servlet controller, a matching ETag is answered before the rates are looked up
+    public Mono<ServerResponse> getRates(ServerRequest request) {
+        LocalDate date = dateVariable(request, "date");
+        DateLookupPolicy policy = DateLookupPolicy.parse(request.queryParam("policy").orElse("STRICT"));
+        Optional<RateVersion> version = exchangeRateService.getRateVersion(date, null, policy);
+        Mono<ServerResponse> body = Mono.defer(() -> {
+            ExchangeRateResponse rates = exchangeRateService.findExchangeRates(date, policy)
+                    .orElseThrow(() -> ExchangeRateException.miss("No exchange rates found for date: " + date,
+                            "RATE_NOT_FOUND"));
+            return version.map(v -> cached(ServerResponse.ok(), v)).orElseGet(ServerResponse::ok).bodyValue(rates);
+        });
+        return version.map(v -> notModified(request, v, null).switchIfEmpty(body)).orElse(body);
+    }
+
+    public Mono<ServerResponse> getExchangeRateForCurrency(ServerRequest request) {
+        LocalDate date = dateVariable(request, "date");
+        String currency = request.pathVariable("currency");
+        DateLookupPolicy policy = DateLookupPolicy.parse(request.queryParam("policy").orElse("STRICT"));
+        Optional<RateVersion> version = exchangeRateService.getRateVersion(date, currency, policy);
+        Mono<ServerResponse> body = Mono.defer(() ->
+                exchangeRateService.getExchangeRateForCurrency(date, currency, policy)
+                        .map(dated -> version.map(v -> cached(ServerResponse.ok(), v)).orElseGet(ServerResponse::ok)
+                                .header(RATE_DATE_HEADER, dated.getDate().toString())
+                                .bodyValue(dated.getRate()))
+                        .orElseGet(() -> Mono.error(ExchangeRateException.RATE_UNAVAILABLE)));
+        return version.map(v -> notModified(request, v, v.getRateDate().toString()).switchIfEmpty(body))
+                .orElse(body);
+    }
+
+    public Mono<ServerResponse> convert(ServerRequest request) {
+        String currency = requiredParam(request, "currency");
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(requiredParam(request, "amount"));
+        } catch (NumberFormatException ex) {
+            throw new ExchangeRateException("Invalid amount", "INVALID_CONVERSION_REQUEST");
+        }
+        if (amount.signum() <= 0) {
+            throw new ExchangeRateException("Amount must be positive", "INVALID_CONVERSION_REQUEST");
+        }
+        LocalDate date = parseDate(requiredParam(request, "date"));
+        String to = request.queryParam("to").orElse("EUR");
+        DateLookupPolicy policy = DateLookupPolicy.parse(request.queryParam("policy").orElse("STRICT"));
+        try {
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(exchangeRateService.convert(new ConversionRequest(currency, amount, date), to, policy));
+        } catch (RateNotFoundException ex) {
+            throw ExchangeRateException.miss(ex.getMessage(), "CONVERSION_DATA_MISSING");
+        } catch (IllegalArgumentException ex) {
+            throw new ExchangeRateException(ex.getMessage(), "INVALID_CONVERSION_REQUEST");
+        }
+    }
+
+    private static Mono<ServerResponse> streamed(ServerResponse.BodyBuilder response, MediaType contentType,
+                                                 StreamingBody.Writer writer) {
+        return response.contentType(contentType).body(BodyInserters.fromDataBuffers(StreamingBody.of(writer)));
+    }
+
+    // ?format= (the subtype, e.g. csv) wins over the Accept header; the first type is the default
+    private static MediaType negotiate(ServerRequest request, MediaType... produced) {
+        Optional<String> format = request.queryParam("format");
+        for (MediaType type : produced) {
+            if (format.map(type.getSubtype()::equalsIgnoreCase).orElse(false)) {
+                return type;
+            }
+        }
+        if (!format.isPresent()) {
+            for (MediaType accepted : request.headers().accept()) {
+                for (MediaType type : produced) {
+                    if (accepted.isConcrete() && accepted.includes(type)) {
+                        return type;
+                    }
+                }
+            }
+        }
+        return produced[0];
+    }
+
+    // Comma-separated and/or repeated, as the servlet binding accepts them; null if absent
+    private static List<String> listParam(ServerRequest request, String name) {
+        List<String> values = new ArrayList<>();
+        for (String value : request.queryParams().getOrDefault(name, new ArrayList<>())) {
+            for (String item : value.split(",")) {
+                if (!item.trim().isEmpty()) {
+                    values.add(item.trim());
+                }
+            }
+        }
+        return values.isEmpty() ? null : values;
+    }
+
+    private static Integer limitParam(ServerRequest request) {
+        Optional<String> value = request.queryParam("limit");
+        if (!value.isPresent()) {
+            return null;
+        }
+        try {
+            int limit = Integer.parseInt(value.get());
+            if (limit > 0) {
+                return limit;
+            }
+        } catch (NumberFormatException ex) {
+            // reported below
+        }
+        throw new ExchangeRateException("Invalid limit: " + value.get(), "INVALID_LIMIT");
+    }
+
+    private static LocalDate dateParam(ServerRequest request, String name) {
+        return request.queryParam(name).map(ReactiveExchangeRateHandler::parseDate).orElse(null);
+    }
+
+    // 304 with the same validators as the full response, or empty if the client's copy is stale
+    private Mono<ServerResponse> notModified(ServerRequest request, RateVersion version, String rateDate) {
+        return request.checkNotModified(version.getEtag())
+                .flatMap(unused -> {
+                    ServerResponse.BodyBuilder response = cached(ServerResponse.status(HttpStatus.NOT_MODIFIED), version);
+                    if (rateDate != null) {
+                        response.header(RATE_DATE_HEADER, rateDate);
+                    }
+                    return response.build();
+                });
+    }
+
+    private ServerResponse.BodyBuilder cached(ServerResponse.BodyBuilder response, RateVersion version) {
+        return response.eTag(version.getEtag())
+                .header(HttpHeaders.CACHE_CONTROL, rateCacheControl.headerValue(version));
+    }
+
+    private static String requiredParam(ServerRequest request, String name) {
+        return request.queryParam(name)
+                .orElseThrow(() -> new ExchangeRateException("Missing parameter: " + name, "MISSING_PARAMETER"));
+    }
+
+    private static LocalDate dateVariable(ServerRequest request, String name) {
+        return parseDate(request.pathVariable(name));
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException ex) {
+            throw new ExchangeRateException("Invalid date: " + value, "INVALID_DATE");
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.bundesbank.controller;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Reactive body for the blocking RateStreamWriter methods. The writer runs on a bounded-elastic worker
+// and its output is published in DataBuffers of CHUNK_BYTES; the worker waits while the subscriber has
+// no demand, so a response holds about one chunk in memory however large the body or slow the client.
+final class StreamingBody {
+    static final int CHUNK_BYTES = 32 * 1024;
+
+    @FunctionalInterface
+    interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private StreamingBody() {
+    }
+
+    static Flux<DataBuffer> of(Writer writer) {
+        return Flux.create(sink -> {
+            ChunkStream out = new ChunkStream(sink);
+            sink.onRequest(n -> out.wake());
+            sink.onDispose(out::wake);
+            Schedulers.boundedElastic().schedule(() -> out.run(writer));
+        });
+    }
+
+    private static final class ChunkStream extends OutputStream {
+        private final FluxSink<DataBuffer> sink;
+        private DataBuffer chunk;
+
+        private ChunkStream(FluxSink<DataBuffer> sink) {
+            this.sink = sink;
+        }
+
+        private void run(Writer writer) {
+            try {
+                writer.write(this);
+                emit();
+                sink.complete();
+            } catch (IOException | RuntimeException ex) {
+                release();
+                if (!sink.isCancelled()) {
+                    sink.error(ex);
+                }
+            } catch (InterruptedException ex) {
+                release();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            current().write((byte) b);
+            if (chunk.writableByteCount() == 0) {
+                emitFull();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                int count = Math.min(length, current().writableByteCount());
+                chunk.write(bytes, offset, count);
+                offset += count;
+                length -= count;
+                if (chunk.writableByteCount() == 0) {
+                    emitFull();
+                }
+            }
+        }
+
+        private DataBuffer current() throws IOException {
+            if (sink.isCancelled()) {
+                throw new IOException("Response cancelled");
+            }
+            if (chunk == null) {
+                chunk = DefaultDataBufferFactory.sharedInstance.allocateBuffer(CHUNK_BYTES);
+            }
+            return chunk;
+        }
+
+        private void emitFull() throws IOException {
+            try {
+                emit();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for demand", ex);
+            }
+        }
+
+        // Hands the filled chunk on once the subscriber has requested one
+        private void emit() throws InterruptedException {
+            if (chunk == null) {
+                return;
+            }
+            synchronized (this) {
+                while (sink.requestedFromDownstream() == 0 && !sink.isCancelled()) {
+                    wait();
+                }
+            }
+            DataBuffer filled = chunk;
+            chunk = null;
+            if (sink.isCancelled()) {
+                DataBufferUtils.release(filled);
+            } else {
+                sink.next(filled);
+            }
+        }
+
+        private synchronized void wake() {
+            notifyAll();
+        }
+
+        private void release() {
+            if (chunk != null) {
+                DataBufferUtils.release(chunk);
+                chunk = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.bundesbank.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+// One entry of a batch conversion response: either a result or an inline error
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchConversionResult {
+    private ConversionResult result;
+    private String errorCode;
+    private String errorMessage;
+
+    public static BatchConversionResult success(ConversionResult result) {
+        return BatchConversionResult.builder().result(result).build();
+    }
+
+    public static BatchConversionResult failure(String errorCode, String errorMessage) {
+        return BatchConversionResult.builder().errorCode(errorCode).errorMessage(errorMessage).build();
+    }
+}
@@ -11,15 +11,19 @@ import java.time.LocalDate;
 @Builder
 public class ConversionResult {
     private String fromCurrency;
+    @Builder.Default
+    private String toCurrency = "EUR";
     private BigDecimal originalAmount;
     private LocalDate date;
+    private LocalDate rateDate; // date whose rates were used; differs from date when a fallback policy applied
     private BigDecimal convertedAmount;
 
     public String getFormattedResult() {
-        return String.format("%s %s on %s = %s EUR",
+        return String.format("%s %s on %s = %s %s",
                 originalAmount.setScale(2, RoundingMode.HALF_EVEN),
                 fromCurrency,
                 date,
-                convertedAmount.setScale(4, RoundingMode.HALF_EVEN));
+                convertedAmount.setScale(4, RoundingMode.HALF_EVEN),
+                toCurrency);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,14 @@
+package com.bundesbank.dto;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+// Rates written to the shared database since some data version: the newest version and the
+// date range those writes touched
+@Value
+public class DataChange {
+    long version;
+    LocalDate from;
+    LocalDate to;
+}
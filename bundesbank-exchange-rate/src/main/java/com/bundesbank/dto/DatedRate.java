@@ -0,0 +1,14 @@
+package com.bundesbank.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class DatedRate {
+    private LocalDate date; // the stored date the rate was taken from
+    private BigDecimal rate;
+}
@@ -10,6 +10,7 @@ import java.util.Map;
 @Data
 @Builder
 public class ExchangeRateResponse {
-    private LocalDate date;
+    private LocalDate date;          // date the rates were published for
+    private LocalDate requestedDate; // date asked for; differs from date when a fallback policy applied
     private Map<String, BigDecimal> rates; // currency -> rate
 }
@@ -0,0 +1,14 @@
+package com.bundesbank.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+// New or revised rates of one date, currency -> EUR rate
+@Value
+public class RateChange {
+    LocalDate date;
+    Map<String, BigDecimal> rates;
+}
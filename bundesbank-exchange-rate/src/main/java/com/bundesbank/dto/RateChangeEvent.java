@@ -0,0 +1,20 @@
+package com.bundesbank.dto;
+
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.List;
+
+// One entry of the rate change feed. A reset carries no changes: the deltas were too large to send
+// (bulk imports) or the client resumed from a sequence the feed no longer holds, so it should reload
+// the rates it needs from /api/rates and continue from this sequence.
+@Value
+public class RateChangeEvent {
+    long sequence;
+    boolean reset;
+    List<RateChange> changes;
+
+    public static RateChangeEvent reset(long sequence) {
+        return new RateChangeEvent(sequence, true, Collections.emptyList());
+    }
+}
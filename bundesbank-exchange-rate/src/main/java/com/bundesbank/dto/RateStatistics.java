@@ -0,0 +1,24 @@
+package com.bundesbank.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Statistics of the EUR -> currency rate over the observations between from and to
+@Data
+@Builder
+public class RateStatistics {
+    private String currency;
+    private LocalDate from;   // first observation in the range
+    private LocalDate to;     // last observation in the range
+    private int observations;
+    private BigDecimal min;
+    private BigDecimal max;
+    private BigDecimal mean;
+    private BigDecimal standardDeviation; // sample standard deviation
+    private BigDecimal first;
+    private BigDecimal last;
+    private BigDecimal changePercent;     // (last - first) / first * 100
+}
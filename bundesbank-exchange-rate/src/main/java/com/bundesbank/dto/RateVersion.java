@@ -0,0 +1,13 @@
+package com.bundesbank.dto;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+// Identifies the content a rate lookup would return, for conditional HTTP requests
+@Value
+public class RateVersion {
+    String etag;        // strong validator derived from the rates served
+    LocalDate rateDate; // the stored day the rates come from
+    boolean published;  // past day served exactly as requested, so the content is final
+}
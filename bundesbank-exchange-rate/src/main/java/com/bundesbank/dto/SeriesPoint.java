@@ -0,0 +1,22 @@
+package com.bundesbank.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One period of a resampled series: value for avg/last, open/high/low/close for ohlc
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SeriesPoint {
+    private LocalDate period; // first calendar day of the week, month or year
+    private int observations;
+    private BigDecimal value;
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+}
@@ -0,0 +1,11 @@
+package com.bundesbank.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SyncResult {
+    private int added;   // observations that were not stored before
+    private int revised; // stored observations whose published value changed
+}
@@ -5,11 +5,14 @@ import lombok.*;
 import javax.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Map;
 
 
+// One row per (date, currency). The composite primary key doubles as the (date) index,
+// the secondary index serves per-currency history scans.
 @Entity
-@Table(name = "exchange_rates")
+@Table(name = "exchange_rate",
+        indexes = @Index(name = "idx_exchange_rate_currency_date", columnList = "currency_code, rate_date"))
+@IdClass(ExchangeRateId.class)
 @Getter @Setter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,16 +20,13 @@ import java.util.Map;
 @ToString
 public class ExchangeRateEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
-    @Column(nullable = false)
+    @Column(name = "rate_date", nullable = false)
     private LocalDate date;
 
-    @ElementCollection
-    @CollectionTable(name = "currency_rates",
-            joinColumns = @JoinColumn(name = "exchange_rate_id"))
-    @MapKeyColumn(name = "currency_code")
-    @Column(name = "rate", precision = 19, scale = 6)
-    private Map<String, BigDecimal> rates;
-}
\ No newline at end of file
+    @Id
+    @Column(name = "currency_code", length = 3, nullable = false)
+    private String currency;
+
+    @Column(name = "rate", precision = 19, scale = 6, nullable = false)
+    private BigDecimal rate;
+}
@@ -0,0 +1,18 @@
+package com.bundesbank.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRateId implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private LocalDate date;
+    private String currency;
+}
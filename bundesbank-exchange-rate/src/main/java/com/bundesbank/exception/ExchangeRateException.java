@@ -5,6 +5,12 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class ExchangeRateException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    // Thrown for every single-currency lookup without a rate; being stackless it is safe to share
+    public static final ExchangeRateException RATE_UNAVAILABLE =
+            miss("Failed to retrieve exchange rate", "RATE_RETRIEVAL_ERROR");
+
     private final String errorCode;
 
     public ExchangeRateException(String message) {
@@ -17,7 +23,18 @@ public class ExchangeRateException extends RuntimeException {
         this.errorCode = errorCode;
     }
 
+    protected ExchangeRateException(String message, String errorCode, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.errorCode = errorCode;
+    }
+
+    // For lookups without rates, an expected outcome (weekends, holidays, future dates) that is
+    // frequent under bot traffic, so no stack trace is captured
+    public static ExchangeRateException miss(String message, String errorCode) {
+        return new ExchangeRateException(message, errorCode, false);
+    }
+
     public String getErrorCode() {
         return errorCode;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,11 @@
+package com.bundesbank.exception;
+
+// A stackless ExchangeRateException for lookups without rates. Missing dates and rates are an expected
+// outcome of lookups (weekends, holidays, future dates), so capturing the stack on every miss is pure overhead.
+public class RateNotFoundException extends ExchangeRateException {
+    private static final long serialVersionUID = 1L;
+
+    public RateNotFoundException(String message) {
+        super(message, "RATE_NOT_FOUND", false);
+    }
+}
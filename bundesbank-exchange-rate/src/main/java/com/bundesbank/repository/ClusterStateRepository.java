@@ -0,0 +1,83 @@
+package com.bundesbank.repository;
+
+import com.bundesbank.dto.DataChange;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.Optional;
+
+// Shared state of a clustered deployment: the importer lease and a log of data versions.
+// Lease times use the database clock, so nodes never compare their own clocks.
+@Repository
+@RequiredArgsConstructor
+public class ClusterStateRepository {
+    private static final String RENEW_LEASE_SQL =
+            "UPDATE cluster_lease SET owner = ?, expires_at = DATEADD('MILLISECOND', ?, CURRENT_TIMESTAMP) "
+                    + "WHERE name = ? AND (owner = ? OR expires_at < CURRENT_TIMESTAMP)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void createTables() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS cluster_lease ("
+                + "name VARCHAR(64) PRIMARY KEY, owner VARCHAR(128) NOT NULL, expires_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS rate_data_version ("
+                + "version BIGINT AUTO_INCREMENT PRIMARY KEY, from_date DATE NOT NULL, to_date DATE NOT NULL, "
+                + "row_count INT NOT NULL, owner VARCHAR(128) NOT NULL, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+    }
+
+    // Takes the lease if it is free or expired, or extends it if the owner already holds it
+    public boolean tryAcquireLease(String name, String owner, Duration duration) {
+        if (jdbcTemplate.update(RENEW_LEASE_SQL, owner, duration.toMillis(), name, owner) == 1) {
+            return true;
+        }
+        try {
+            return jdbcTemplate.update("INSERT INTO cluster_lease (name, owner, expires_at) "
+                    + "VALUES (?, ?, DATEADD('MILLISECOND', ?, CURRENT_TIMESTAMP))", name, owner, duration.toMillis()) == 1;
+        } catch (DuplicateKeyException e) {
+            return false; // held by another node
+        }
+    }
+
+    public void releaseLease(String name, String owner) {
+        jdbcTemplate.update("DELETE FROM cluster_lease WHERE name = ? AND owner = ?", name, owner);
+    }
+
+    // Returns the new version
+    public long recordVersion(LocalDate from, LocalDate to, int rows, String owner) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO rate_data_version (from_date, to_date, row_count, owner) VALUES (?, ?, ?, ?)",
+                    new String[]{"version"});
+            statement.setDate(1, Date.valueOf(from));
+            statement.setDate(2, Date.valueOf(to));
+            statement.setInt(3, rows);
+            statement.setString(4, owner);
+            return statement;
+        }, keyHolder);
+        return Objects.requireNonNull(keyHolder.getKey()).longValue();
+    }
+
+    public long latestVersion() {
+        Long version = jdbcTemplate.queryForObject("SELECT MAX(version) FROM rate_data_version", Long.class);
+        return version == null ? 0 : version;
+    }
+
+    // All versions after the given one folded into a single date range; empty if there are none
+    public Optional<DataChange> changesSince(long version) {
+        return jdbcTemplate.query("SELECT MAX(version), MIN(from_date), MAX(to_date) FROM rate_data_version "
+                        + "WHERE version > ?",
+                (rs, rowNum) -> rs.getLong(1) == 0 ? null
+                        : new DataChange(rs.getLong(1), rs.getDate(2).toLocalDate(), rs.getDate(3).toLocalDate()),
+                version).stream().filter(Objects::nonNull).findFirst();
+    }
+}
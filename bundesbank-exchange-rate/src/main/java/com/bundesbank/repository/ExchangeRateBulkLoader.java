@@ -0,0 +1,102 @@
+package com.bundesbank.repository;
+
+import com.bundesbank.store.RateSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Writes rates straight through JDBC batches of H2 MERGE statements, bypassing
+// per-entity persistence so a full history import is a handful of round trips.
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class ExchangeRateBulkLoader {
+    private static final String UPSERT_SQL =
+            "MERGE INTO exchange_rate (rate_date, currency_code, rate) KEY (rate_date, currency_code) VALUES (?, ?, ?)";
+
+    private static final String MIGRATE_LEGACY_SQL =
+            "MERGE INTO exchange_rate (rate_date, currency_code, rate) KEY (rate_date, currency_code) "
+                    + "SELECT e.date, c.currency_code, c.rate FROM exchange_rates e "
+                    + "JOIN currency_rates c ON c.exchange_rate_id = e.id WHERE c.rate IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${exchange-rate.bulk-load.batch-size:1000}")
+    private int batchSize;
+
+    // Inserts or overwrites every (date, currency) rate and returns the number of rows written
+    @Transactional
+    public int upsert(Map<LocalDate, Map<String, BigDecimal>> ratesByDate) {
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        int written = 0;
+        for (Map.Entry<LocalDate, Map<String, BigDecimal>> day : ratesByDate.entrySet()) {
+            Date date = Date.valueOf(day.getKey());
+            for (Map.Entry<String, BigDecimal> rate : day.getValue().entrySet()) {
+                batch.add(new Object[]{date, rate.getKey(), rate.getValue()});
+                if (batch.size() == batchSize) {
+                    written += flush(batch);
+                }
+            }
+        }
+        written += flush(batch);
+        return written;
+    }
+
+    // Writes every rate held in the snapshot
+    @Transactional
+    public int upsert(RateSnapshot snapshot) {
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        int written = 0;
+        for (int d = 0; d < snapshot.dayCount(); d++) {
+            Date date = Date.valueOf(snapshot.date(d));
+            for (int c = 0; c < snapshot.currencyCount(); c++) {
+                BigDecimal rate = snapshot.rate(d, c);
+                if (rate == null) {
+                    continue;
+                }
+                batch.add(new Object[]{date, snapshot.currency(c), rate});
+                if (batch.size() == batchSize) {
+                    written += flush(batch);
+                }
+            }
+        }
+        written += flush(batch);
+        return written;
+    }
+
+    private int flush(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+
+    // Copies rows from the old exchange_rates/currency_rates element-collection tables, if they exist
+    @Transactional
+    public int migrateLegacyTables() {
+        Integer legacyTables = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES "
+                        + "WHERE TABLE_NAME IN ('EXCHANGE_RATES', 'CURRENCY_RATES')", Integer.class);
+        if (legacyTables == null || legacyTables < 2) {
+            return 0;
+        }
+        int migrated = jdbcTemplate.update(MIGRATE_LEGACY_SQL);
+        if (migrated > 0) {
+            log.info("Migrated {} rates from legacy currency_rates table", migrated);
+        }
+        return migrated;
+    }
+}
@@ -1,14 +1,19 @@
 package com.bundesbank.repository;
 
 import com.bundesbank.entity.ExchangeRateEntity;
+import com.bundesbank.entity.ExchangeRateId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
 
-public interface ExchangeRateRepository extends JpaRepository<ExchangeRateEntity, Long> {
-    Optional<ExchangeRateEntity> findByDate(LocalDate date);
-    List<ExchangeRateEntity> findAllByOrderByDateAsc();
-    boolean existsByDate(LocalDate date);
-}
\ No newline at end of file
+public interface ExchangeRateRepository extends JpaRepository<ExchangeRateEntity, ExchangeRateId> {
+    // Flat (date, currency, rate) rows in a single query, used to build the in-memory rate store
+    @Query("select e.date, e.currency, e.rate from ExchangeRateEntity e")
+    List<Object[]> findAllRateRows();
+
+    // The same rows for a date range, used to refresh the store after another node wrote to it
+    @Query("select e.date, e.currency, e.rate from ExchangeRateEntity e where e.date between ?1 and ?2")
+    List<Object[]> findRateRowsBetween(LocalDate from, LocalDate to);
+}
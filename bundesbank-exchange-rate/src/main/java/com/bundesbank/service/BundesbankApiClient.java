@@ -1,18 +1,29 @@
 package com.bundesbank.service;
 
-import com.bundesbank.dto.BundesbankApiResponse;
+import com.bundesbank.store.CurrencyRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
 
 @Service
 @Slf4j
@@ -22,128 +33,326 @@ public class BundesbankApiClient {
     @Value("${bundesbank.api.base-url}")
     private String baseUrl;
 
-    @Value("${supported.currencies}")
-    private List<String> supportedCurrencies;
+    @Value("${bundesbank.api.read-timeout:60s}")
+    private Duration readTimeout;
+
+    @Value("${bundesbank.api.retry.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${bundesbank.api.retry.initial-backoff:500ms}")
+    private Duration initialBackoff;
+
+    @Value("${bundesbank.api.retry.max-backoff:10s}")
+    private Duration maxBackoff;
 
-    private static final String DATA_FLOW = "BBEX3";
-    private static final String FREQUENCY = "D";
-    private static final String SERIES_TYPE = "BB";
-    private static final String RATE_TYPE = "AC";
-    private static final String SUFFIX = "000";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_DATE;
 
-    private final RestTemplate restTemplate;
+    private final HttpClient bundesbankHttpClient;
+    private final ExecutorService bundesbankParseExecutor;
+    private final ConcurrencyLimiter bundesbankFetchLimiter;
+    private final CircuitBreaker bundesbankCircuitBreaker;
+    private final FailedFetchRegistry failedFetchRegistry;
+    private final SdmxJsonParser sdmxJsonParser;
+    private final ExchangeRateMetrics metrics;
+    private final CurrencyRegistry currencyRegistry;
 
     public Map<LocalDate, Map<String, BigDecimal>> fetchExchangeRates(LocalDate startDate, LocalDate endDate) {
-        Map<LocalDate, Map<String, BigDecimal>> rates = new ConcurrentHashMap<>();
+        Map<String, CompletableFuture<Map<LocalDate, BigDecimal>>> futures = new LinkedHashMap<>();
+        for (CurrencyRegistry.Metadata series : currencyRegistry.currencies()) {
+            LocalDate end = series.fetchEnd(endDate);
+            if (!startDate.isAfter(end)) {
+                futures.put(series.getCode(), fetchCurrency(series.getCode(), startDate, end));
+            }
+        }
+        return collect(futures);
+    }
 
-        supportedCurrencies.parallelStream().forEach(currency -> {
-            try {
-                String url = buildUrlForCurrency(currency, startDate, endDate);
-                log.debug("Fetching rates for {} from URL: {}", currency, url);
-
-                ResponseEntity<BundesbankApiResponse> response = restTemplate.exchange(
-                        url,
-                        HttpMethod.GET,
-                        new HttpEntity<>(createHeaders()),
-                        BundesbankApiResponse.class);
-
-                if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                    processResponse(currency, response.getBody(), rates);
-                } else {
-                    log.warn("No data available for {}: HTTP {}", currency, response.getStatusCode());
-                }
-            } catch (Exception e) {
-                log.warn("Error processing currency {}: {}", currency, e.getMessage());
+    // Fetches each currency from its own start date up to endDate. Currencies without a start date
+    // get their full history; currencies whose start date lies after endDate (or after the end of their
+    // validity, as for legacy currencies already loaded) are skipped.
+    // Each future completes as soon as that currency's response has been parsed.
+    public Map<String, CompletableFuture<Map<LocalDate, BigDecimal>>> fetchRatesSinceAsync(
+            Map<String, LocalDate> startDates, LocalDate endDate) {
+        Map<String, CompletableFuture<Map<LocalDate, BigDecimal>>> futures = new LinkedHashMap<>();
+        for (CurrencyRegistry.Metadata series : currencyRegistry.currencies()) {
+            String currency = series.getCode();
+            LocalDate startDate = startDates.get(currency);
+            LocalDate end = series.fetchEnd(endDate);
+            if (startDate == null) {
+                log.info("No stored rates for {}, fetching full history", currency);
+                futures.put(currency, fetchCurrency(currency, null, null));
+            } else if (!startDate.isAfter(end)) {
+                futures.put(currency, fetchCurrency(currency, startDate, end));
             }
-        });
+        }
+        return futures;
+    }
 
-        return rates;
+    public Map<String, CompletableFuture<Map<LocalDate, BigDecimal>>> fetchAllHistoricalRatesAsync() {
+        Map<String, CompletableFuture<Map<LocalDate, BigDecimal>>> futures = new LinkedHashMap<>();
+        for (String currency : currencyRegistry.codes()) {
+            log.info("Fetching all historical rates for {}", currency);
+            futures.put(currency, fetchCurrency(currency, null, null));
+        }
+        return futures;
     }
 
-    private void processResponse(String currency, BundesbankApiResponse response,
-                                 Map<LocalDate, Map<String, BigDecimal>> rates) {
-        if (response == null || response.getData() == null || response.getData().getDataSets().isEmpty()) {
-            log.debug("No data sets received for currency: {}", currency);
-            return;
+    // Re-fetches exactly the (currency, range) pieces that previously failed after all retries
+    public Map<String, CompletableFuture<Map<LocalDate, BigDecimal>>> refetchFailedAsync() {
+        Map<String, CompletableFuture<Map<LocalDate, BigDecimal>>> futures = new LinkedHashMap<>();
+        for (FailedFetchRegistry.FailedFetch failed : failedFetchRegistry.pending()) {
+            log.info("Re-fetching failed range for {}", failed.getCurrency());
+            futures.put(failed.getCurrency(),
+                    fetchCurrency(failed.getCurrency(), failed.getStartDate(), failed.getEndDate()));
         }
+        return futures;
+    }
+
+    public boolean hasFailedFetches() {
+        return !failedFetchRegistry.isEmpty();
+    }
 
-        BundesbankApiResponse.DataSet dataSet = response.getData().getDataSets().get(0);
-        if (dataSet.getSeries() == null || dataSet.getSeries().isEmpty()) {
-            log.debug("No series data available for currency: {}", currency);
-            return;
+    // Drops the recorded failures, e.g. once another node has taken over fetching
+    public void clearFailedFetches() {
+        failedFetchRegistry.clear();
+    }
+
+    public Map<LocalDate, Map<String, BigDecimal>> fetchAllHistoricalRates() {
+        return collect(fetchAllHistoricalRatesAsync());
+    }
+
+    // Waits for all currencies and pivots their series into date -> (currency -> rate)
+    private Map<LocalDate, Map<String, BigDecimal>> collect(
+            Map<String, CompletableFuture<Map<LocalDate, BigDecimal>>> futures) {
+        Map<LocalDate, Map<String, BigDecimal>> rates = new ConcurrentHashMap<>();
+        futures.forEach((currency, future) -> future.join().forEach((date, rate) ->
+                rates.computeIfAbsent(date, k -> new ConcurrentHashMap<>()).put(currency, rate)));
+        return rates;
+    }
+
+    // Never completes exceptionally: once retries are exhausted the failure is logged, the
+    // range is recorded for a later re-fetch and the future yields an empty series.
+    // A null startDate fetches the full history.
+    private CompletableFuture<Map<LocalDate, BigDecimal>> fetchCurrency(String currency, LocalDate startDate,
+                                                                       LocalDate endDate) {
+        String url = buildUrl(currency, startDate, endDate);
+        log.debug("Fetching rates for {} from URL: {}", currency, url);
+
+        return fetchWithRetry(currency, url, 1)
+                .thenApply(rates -> {
+                    failedFetchRegistry.resolve(currency, startDate, startDate == null ? null : endDate);
+                    return rates;
+                })
+                .exceptionally(e -> {
+                    log.warn("Error processing currency {}: {}", currency, unwrap(e).toString());
+                    metrics.recordFetchFailure(currency, "exhausted");
+                    failedFetchRegistry.record(currency, startDate, startDate == null ? null : endDate);
+                    return Collections.emptyMap();
+                });
+    }
+
+    private CompletableFuture<Map<LocalDate, BigDecimal>> fetchWithRetry(String currency, String url, int attempt) {
+        return fetchOnce(currency, url)
+                .handle((rates, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.completedFuture(rates);
+                    }
+                    Throwable cause = unwrap(error);
+                    if (!isRetryable(cause) || attempt >= maxAttempts) {
+                        return CompletableFuture.<Map<LocalDate, BigDecimal>>failedFuture(cause);
+                    }
+                    long delay = backoffMillis(attempt);
+                    log.info("Attempt {} for {} failed ({}), retrying in {} ms", attempt, currency, cause, delay);
+                    Executor delayed = CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS,
+                            bundesbankHttpClient.executor().orElse(ForkJoinPool.commonPool()));
+                    return CompletableFuture.runAsync(() -> { }, delayed)
+                            .thenCompose(ignored -> fetchWithRetry(currency, url, attempt + 1));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<Map<LocalDate, BigDecimal>> fetchOnce(String currency, String url) {
+        if (!bundesbankCircuitBreaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RetryableFetchException("circuit open"));
         }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(readTimeout)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+
+        AtomicBoolean answered = new AtomicBoolean();
+        return bundesbankFetchLimiter.submit(() -> {
+                    // Started once a slot is free, so queueing behind the limiter is not counted
+                    Timer.Sample sample = metrics.startTimer();
+                    return bundesbankHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                            .thenCompose(response -> {
+                                answered.set(true);
+                                return parseWithDeadline(currency, response);
+                            })
+                            .whenComplete((rates, error) ->
+                                    metrics.recordFetch(sample, currency, error == null ? "success" : "error"));
+                })
+                .whenComplete((rates, error) -> {
+                    if (error == null) {
+                        bundesbankCircuitBreaker.recordSuccess();
+                        return;
+                    }
+                    metrics.recordFetchFailure(currency, "attempt");
+                    // Every outcome is recorded, so a half-open probe always settles the circuit. A
+                    // non-retryable error on a response (e.g. an unparseable body) still shows the API is up.
+                    if (answered.get() && !isRetryable(unwrap(error))) {
+                        bundesbankCircuitBreaker.recordSuccess();
+                    } else {
+                        bundesbankCircuitBreaker.recordFailure();
+                    }
+                });
+    }
 
-        // Get the first series entry
-        BundesbankApiResponse.Series series = dataSet.getSeries().values().iterator().next();
-        if (series.getObservations() == null || series.getObservations().isEmpty()) {
-            log.debug("No observations available for currency: {} on requested date", currency);
-            return;
+    // Full-jitter exponential backoff: a random delay up to initialBackoff * 2^(attempt - 1), capped
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        return error instanceof RetryableFetchException
+                || error instanceof IOException
+                || error instanceof UncheckedIOException;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
         }
+        return error;
+    }
 
-        List<String> timePeriods = response.getData().getTimePeriods();
-        series.getObservations().forEach((obsIndex, values) -> {
+    // The request timeout only covers the wait for the response headers, so the body gets a deadline of
+    // its own. When it passes, the parse is interrupted (unblocking a read stalled mid-body) and the
+    // attempt fails as retryable.
+    private CompletableFuture<Map<LocalDate, BigDecimal>> parseWithDeadline(String currency,
+                                                                           HttpResponse<InputStream> response) {
+        CompletableFuture<Map<LocalDate, BigDecimal>> parsed = new CompletableFuture<>();
+        Future<?> task = bundesbankParseExecutor.submit(() -> {
             try {
-                int index = Integer.parseInt(obsIndex);
-                if (index < timePeriods.size() && values != null && !values.isEmpty() && values.get(0) != null) {
-                    LocalDate date = LocalDate.parse(timePeriods.get(index));
-                    BigDecimal rate = new BigDecimal(values.get(0));
-                    rates.computeIfAbsent(date, k -> new ConcurrentHashMap<>())
-                            .put(currency, rate);
-                }
-            } catch (Exception e) {
-                log.warn("Failed to process observation {} for {}: {}", obsIndex, currency, e.getMessage());
+                parsed.complete(parseResponse(currency, response));
+            } catch (RuntimeException e) {
+                parsed.completeExceptionally(e);
             }
         });
+        return parsed.orTimeout(readTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(error -> {
+                    if (!(error instanceof TimeoutException)) {
+                        throw error instanceof CompletionException ? (CompletionException) error
+                                : new CompletionException(error);
+                    }
+                    task.cancel(true);
+                    closeQuietly(response.body());
+                    throw new RetryableFetchException("response body not read within " + readTimeout);
+                });
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            log.debug("Failed to close response body: {}", e.toString());
+        }
     }
 
-    private HttpHeaders createHeaders() {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
-        return headers;
+    private Map<LocalDate, BigDecimal> parseResponse(String currency, HttpResponse<InputStream> response) {
+        try (CountingInputStream body = new CountingInputStream(response.body())) {
+            if (response.statusCode() == 404) {
+                // The API answers 404 when the requested period has no observations yet
+                log.debug("No new observations for {}", currency);
+                return Collections.emptyMap();
+            }
+            if (response.statusCode() == 429 || response.statusCode() >= 500) {
+                throw new RetryableFetchException("HTTP " + response.statusCode());
+            }
+            if (response.statusCode() != 200) {
+                log.warn("No data available for {}: HTTP {}", currency, response.statusCode());
+                return Collections.emptyMap();
+            }
+
+            // Observations are streamed from the response body straight into the series map
+            Map<LocalDate, BigDecimal> rates = new HashMap<>();
+            sdmxJsonParser.parse(decode(response, body), currency, (date, ccy, rate) -> rates.put(date, rate));
+            metrics.recordFetchBytes(currency, body.count);
+            if (rates.isEmpty()) {
+                log.debug("No observations available for currency: {}", currency);
+            }
+            return rates;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
-    private String buildUrlForCurrency(String currency, LocalDate startDate, LocalDate endDate) {
-        return String.format("%s/data/%s/%s.%s.EUR.%s.%s.%s?startPeriod=%s&endPeriod=%s&format=json",
-                baseUrl,
-                DATA_FLOW,
-                FREQUENCY,
-                currency,
-                SERIES_TYPE,
-                RATE_TYPE,
-                SUFFIX,
-                startDate.format(DATE_FORMATTER),
-                endDate.format(DATE_FORMATTER));
+    private InputStream decode(HttpResponse<?> response, InputStream body) throws IOException {
+        boolean gzip = response.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        return gzip ? new GZIPInputStream(body) : body;
     }
 
-    public Map<LocalDate, Map<String, BigDecimal>> fetchAllHistoricalRates() {
-        Map<LocalDate, Map<String, BigDecimal>> allRates = new ConcurrentHashMap<>();
+    // The full history (null startDate) is requested only over the currency's validity interval
+    private String buildUrl(String currency, LocalDate startDate, LocalDate endDate) {
+        CurrencyRegistry.Metadata series = currencyRegistry.find(currency)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown currency " + currency));
+        LocalDate start = startDate == null ? series.getValidFrom() : startDate;
+        LocalDate end = startDate == null ? series.getValidTo() : endDate;
 
-        supportedCurrencies.parallelStream().forEach(currency -> {
-            try {
-                String url = buildAllHistoricalDataUrl(currency);
-                log.info("Fetching all historical rates for {}", currency);
-
-                BundesbankApiResponse response = restTemplate.getForObject(url, BundesbankApiResponse.class);
-                if (response != null && response.getData() != null) {
-                    processResponse(currency, response, allRates);
-                }
-            } catch (Exception e) {
-                log.error("Error fetching historical rates for {}: {}", currency, e.getMessage());
+        StringBuilder url = new StringBuilder(baseUrl).append("/data/").append(series.getDataPath()).append('?');
+        if (start != null) {
+            url.append("startPeriod=").append(start.format(DATE_FORMATTER)).append('&');
+        }
+        if (end != null) {
+            url.append("endPeriod=").append(end.format(DATE_FORMATTER)).append('&');
+        }
+        return url.append("format=json").toString();
+    }
+
+    // Counts the bytes read off the wire, i.e. before gzip decoding
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
             }
-        });
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
 
-        return allRates;
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
     }
 
-    private String buildAllHistoricalDataUrl(String currency) {
-        return String.format("%s/data/%s/%s.%s.EUR.%s.%s.%s?format=json",
-                baseUrl,
-                "BBEX3",  // Data flow
-                "D",      // Daily frequency
-                currency, // Currency code
-                "BB",     // Series type
-                "AC",     // Rate type (average)
-                "000");   // Time suffix
+    private static class RetryableFetchException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        RetryableFetchException(String message) {
+            super(message);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,100 @@
+package com.bundesbank.service;
+
+import com.bundesbank.dto.DataChange;
+import com.bundesbank.repository.ClusterStateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+// Clustered mode (exchange-rate.cluster.enabled): replicas share one database and only the holder
+// of the importer lease fetches and writes rates. Every write is logged as a new data version that
+// the other nodes poll to refresh their in-memory store. With clustering off this node is always
+// the importer and nothing is logged.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClusterCoordinator {
+    private static final String IMPORTER_LEASE = "importer";
+
+    private final ClusterStateRepository clusterStateRepository;
+
+    @Value("${exchange-rate.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${exchange-rate.cluster.lease-duration:30s}")
+    private Duration leaseDuration;
+
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName() + "-"
+            + UUID.randomUUID().toString().substring(0, 8);
+
+    private volatile boolean leader;
+
+    @PostConstruct
+    public void createTables() {
+        if (enabled) {
+            clusterStateRepository.createTables();
+            log.info("Clustered mode, node id {}", nodeId);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isLeader() {
+        return !enabled || leader;
+    }
+
+    // Acquires or renews the importer lease; call well within the lease duration
+    public boolean renewLeadership() {
+        if (!enabled) {
+            return true;
+        }
+        boolean acquired;
+        try {
+            acquired = clusterStateRepository.tryAcquireLease(IMPORTER_LEASE, nodeId, leaseDuration);
+        } catch (RuntimeException e) {
+            // Without the database the lease cannot be proven, so stop importing
+            log.warn("Could not renew importer lease: {}", e.getMessage());
+            acquired = false;
+        }
+        if (acquired && !leader) {
+            log.info("Node {} is now the importer", nodeId);
+        } else if (!acquired && leader) {
+            log.warn("Node {} lost the importer lease", nodeId);
+        }
+        leader = acquired;
+        return acquired;
+    }
+
+    // The data version the change was logged as, 0 with clustering off
+    public long recordChange(LocalDate from, LocalDate to, int rows) {
+        return enabled ? clusterStateRepository.recordVersion(from, to, rows, nodeId) : 0;
+    }
+
+    public long latestVersion() {
+        return enabled ? clusterStateRepository.latestVersion() : 0;
+    }
+
+    public Optional<DataChange> changesSince(long version) {
+        return enabled ? clusterStateRepository.changesSince(version) : Optional.empty();
+    }
+
+    // Hands the lease over right away instead of letting it expire
+    @PreDestroy
+    public void releaseLeadership() {
+        if (enabled && leader) {
+            leader = false;
+            clusterStateRepository.releaseLease(IMPORTER_LEASE, nodeId);
+        }
+    }
+}
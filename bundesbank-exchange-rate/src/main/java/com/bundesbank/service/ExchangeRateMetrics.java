@@ -0,0 +1,112 @@
+package com.bundesbank.service;
+
+import com.bundesbank.store.CurrencyRegistry;
+import com.bundesbank.store.RateSnapshot;
+import com.bundesbank.store.RateStore;
+import io.micrometer.core.instrument.*;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// Meters for the Bundesbank client, imports and rate lookups, published on /actuator/prometheus.
+// HTTP endpoint latencies come from Spring's http.server.requests timer.
+@Component
+public class ExchangeRateMetrics {
+    private static final String FETCH = "bundesbank.fetch";
+    private static final String FETCH_BYTES = "bundesbank.fetch.bytes";
+    private static final String FETCH_FAILURES = "bundesbank.fetch.failures";
+    private static final String IMPORT = "exchange.rate.import";
+    private static final String IMPORT_ROWS = "exchange.rate.import.rows";
+    private static final String LOOKUPS = "exchange.rate.lookups";
+    private static final String LATEST_DATE = "exchange.rate.latest.date";
+
+    private final MeterRegistry registry;
+    private final RateStore rateStore;
+    private final CurrencyRegistry currencyRegistry;
+    private final Counter lookupHits;
+    private final Counter lookupFallbacks;
+    private final Counter lookupMisses;
+
+    public ExchangeRateMetrics(MeterRegistry registry, RateStore rateStore, CurrencyRegistry currencyRegistry) {
+        this.registry = registry;
+        this.rateStore = rateStore;
+        this.currencyRegistry = currencyRegistry;
+        this.lookupHits = lookupCounter("hit");
+        this.lookupFallbacks = lookupCounter("fallback");
+        this.lookupMisses = lookupCounter("miss");
+    }
+
+    private Counter lookupCounter(String result) {
+        return Counter.builder(LOOKUPS)
+                .description("Rate lookups against the in-memory store: exact date, another day via the date policy, or nothing")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    // Newest stored date per active currency as epoch seconds, e.g. alert on time() - exchange_rate_latest_date_seconds.
+    // Legacy currencies are left out: their series have ended.
+    @PostConstruct
+    void registerLatestDateGauges() {
+        for (String currency : currencyRegistry.activeCodes()) {
+            Gauge.builder(LATEST_DATE, rateStore, store -> latestEpochSecond(store.snapshot(), currency))
+                    .description("Newest date with a stored rate")
+                    .tag("currency", currency)
+                    .baseUnit("seconds")
+                    .register(registry);
+        }
+    }
+
+    private static double latestEpochSecond(RateSnapshot snapshot, String currency) {
+        int currencyIdx = snapshot.currencyIndex(currency);
+        int day = currencyIdx < 0 ? -1 : snapshot.lastDayIndex(currencyIdx);
+        return day < 0 ? Double.NaN : TimeUnit.DAYS.toSeconds(snapshot.epochDay(day));
+    }
+
+    public Timer.Sample startTimer() {
+        return Timer.start(registry);
+    }
+
+    // One HTTP attempt against the Bundesbank API; outcome is success or error
+    public void recordFetch(Timer.Sample sample, String currency, String outcome) {
+        sample.stop(Timer.builder(FETCH)
+                .description("Latency of a single Bundesbank API request")
+                .tags("currency", currency, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    public void recordFetchBytes(String currency, long bytes) {
+        DistributionSummary.builder(FETCH_BYTES)
+                .description("Response bytes received from the Bundesbank API, as transferred")
+                .tag("currency", currency)
+                .baseUnit("bytes")
+                .register(registry)
+                .record(bytes);
+    }
+
+    // stage is "attempt" for every failed request and "exhausted" once retries have given up
+    public void recordFetchFailure(String currency, String stage) {
+        registry.counter(FETCH_FAILURES, "currency", currency, "stage", stage).increment();
+    }
+
+    // type is "full" for importAllHistoricalData, "offline" for file imports and "incremental" for the sync jobs
+    public void recordImport(Timer.Sample sample, String type, long rows) {
+        sample.stop(Timer.builder(IMPORT)
+                .description("Duration of a rate import")
+                .tag("type", type)
+                .register(registry));
+        registry.counter(IMPORT_ROWS, "type", type).increment(rows);
+    }
+
+    public void recordLookup(LocalDate requested, RateSnapshot snapshot, int day) {
+        if (day < 0) {
+            lookupMisses.increment();
+        } else if (snapshot.epochDay(day) == requested.toEpochDay()) {
+            lookupHits.increment();
+        } else {
+            lookupFallbacks.increment();
+        }
+    }
+}
@@ -1,139 +1,876 @@
 package com.bundesbank.service;
 
+import com.bundesbank.dto.BatchConversionResult;
 import com.bundesbank.dto.ConversionRequest;
 import com.bundesbank.dto.ConversionResult;
-import com.bundesbank.dto.ExchangeRateDto;
+import com.bundesbank.dto.DatedRate;
 import com.bundesbank.dto.ExchangeRateResponse;
-import com.bundesbank.entity.ExchangeRateEntity;
+import com.bundesbank.dto.RateStatistics;
+import com.bundesbank.dto.RateVersion;
+import com.bundesbank.dto.SeriesPoint;
+import com.bundesbank.dto.SyncResult;
 import com.bundesbank.exception.ExchangeRateException;
+import com.bundesbank.exception.RateNotFoundException;
+import com.bundesbank.repository.ExchangeRateBulkLoader;
 import com.bundesbank.repository.ExchangeRateRepository;
-import javassist.NotFoundException;
+import com.bundesbank.store.CurrencyRegistry;
+import com.bundesbank.store.CurrencySeries;
+import com.bundesbank.store.DateLookupPolicy;
+import com.bundesbank.store.FillPolicy;
+import com.bundesbank.store.RangeStatistics;
+import com.bundesbank.store.RateRange;
+import com.bundesbank.store.RateSnapshot;
+import com.bundesbank.store.RateStore;
+import com.bundesbank.store.RateTimeSeries;
+import com.bundesbank.store.RollupInterval;
+import com.bundesbank.store.SeriesAggregation;
+import com.bundesbank.store.SeriesRollup;
+import com.bundesbank.store.SnapshotFile;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.PostConstruct;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ExchangeRateService {
+    private static final String EUR = "EUR";
+    private static final long SCALED_ONE = BigDecimal.ONE.movePointRight(RateSnapshot.SCALE).longValueExact();
+    private static final long PRECISE_ONE = BigDecimal.ONE.movePointRight(RateSnapshot.INVERSE_SCALE).longValueExact();
+
     private final BundesbankApiClient apiClient;
     private final ExchangeRateRepository exchangeRateRepository;
+    private final ExchangeRateBulkLoader bulkLoader;
+    private final RateStore rateStore;
+    private final Validator validator;
+    private final ExchangeRateMetrics metrics;
+    private final OfflineRateImporter offlineImporter;
+    private final ClusterCoordinator clusterCoordinator;
+    private final CurrencyRegistry currencyRegistry;
+    private final RateChangeFeed rateChangeFeed;
+
+    @Value("${exchange-rate.batch.max-size:10000}")
+    private int maxBatchSize;
+
+    @Value("${exchange-rate.sync.lookback-days:0}")
+    private int syncLookbackDays;
+
+    @Value("${exchange-rate.sync.on-startup:true}")
+    private boolean syncOnStartup;
+
+    // Binary snapshot read at startup and rewritten after syncs; empty disables it
+    @Value("${exchange-rate.snapshot.file:}")
+    private String snapshotFile;
+
+    // Directory or ZIP of downloaded Bundesbank series files imported at startup; empty disables it
+    @Value("${exchange-rate.import.path:}")
+    private String importPath;
 
-    @Value("${supported.currencies}")
-    private List<String> supportedCurrencies;
+    @Value("${exchange-rate.import.parallelism:0}")
+    private int importParallelism;
 
-    // Gets ALL configured currencies
+    private volatile boolean catchUpPending;
+
+    // Newest data version of the shared database already reflected in the rate store (clustered mode)
+    private volatile long seenDataVersion;
+
+    // Gets ALL configured currencies, active ones first and then the legacy ones
     public List<String> getAvailableCurrencies() {
-        return Collections.unmodifiableList(supportedCurrencies);
+        return currencyRegistry.codes();
     }
 
     // Gets rates for ALL currencies on a date
-    public ExchangeRateResponse getExchangeRates(LocalDate date) throws NotFoundException {
-        return exchangeRateRepository.findByDate(date)
-                .map(this::convertToResponse)
-                .orElseThrow(() -> new NotFoundException("No rates found for date: " + date));
+    public ExchangeRateResponse getExchangeRates(LocalDate date) {
+        return getExchangeRates(date, DateLookupPolicy.STRICT);
     }
 
-    private ExchangeRateResponse convertToResponse(ExchangeRateEntity entity) {
-        return ExchangeRateResponse.builder()
-                .date(entity.getDate())
-                .rates(entity.getRates())
-                .build();
+    public ExchangeRateResponse getExchangeRates(LocalDate date, DateLookupPolicy policy) {
+        return findExchangeRates(date, policy)
+                .orElseThrow(() -> new RateNotFoundException("No rates found for date: " + date));
     }
-    public List<ExchangeRateDto> getAllExchangeRates() {
-        return exchangeRateRepository.findAllByOrderByDateAsc().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+
+    // Empty for dates without rates, which callers turn into their own error without an exception in between
+    public Optional<ExchangeRateResponse> findExchangeRates(LocalDate date, DateLookupPolicy policy) {
+        RateSnapshot snapshot = rateStore.snapshot();
+        int day = snapshot.resolveDay(date, policy);
+        metrics.recordLookup(date, snapshot, day);
+        if (day < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(ExchangeRateResponse.builder()
+                .date(snapshot.date(day))
+                .requestedDate(date)
+                .rates(snapshot.ratesForDay(day))
+                .build());
     }
-    private ExchangeRateDto convertToDto(ExchangeRateEntity entity) {
-        return ExchangeRateDto.builder()
-                .date(entity.getDate())
-                .eurToForeignRates(entity.getRates())
+
+    // ETag and finality of what getExchangeRates / getExchangeRateForCurrency (currency != null) would
+    // return, computed from the in-memory snapshot so conditional requests never reach the database
+    public Optional<RateVersion> getRateVersion(LocalDate date, String currency, DateLookupPolicy policy) {
+        RateSnapshot snapshot = rateStore.snapshot();
+        int[] columns = new int[0];
+        int day;
+        if (currency != null) {
+            CurrencyRegistry.Metadata series = currencyRegistry.find(currency).orElse(null);
+            int currencyIdx = series == null ? -1 : snapshot.currencyIndex(series.getCode());
+            if (currencyIdx < 0) {
+                return Optional.empty();
+            }
+            columns = new int[]{currencyIdx};
+            day = resolveCurrencyDay(snapshot, series, currencyIdx, date, policy);
+        } else {
+            day = snapshot.resolveDay(date, policy);
+        }
+        if (day < 0) {
+            return Optional.empty();
+        }
+        LocalDate rateDate = snapshot.date(day);
+        String etag = rateDate + "-" + Long.toHexString(snapshot.contentHash(day, columns));
+        boolean published = rateDate.equals(date) && date.isBefore(LocalDate.now());
+        return Optional.of(new RateVersion(etag, rateDate, published));
+    }
+
+    // Resolves the window of /api/rates to stream. All bounds are optional: from/to are inclusive,
+    // after is the exclusive cursor returned by the previous page and limit caps the page size.
+    public RateRange getExchangeRateRange(LocalDate from, LocalDate to, List<String> currencies,
+                                          LocalDate after, Integer limit) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ExchangeRateException("'from' must not be after 'to'", "INVALID_DATE_RANGE");
+        }
+
+        RateSnapshot snapshot = rateStore.snapshot();
+        int fromDay = from == null ? 0 : snapshot.firstDayOnOrAfter(from);
+        if (after != null) {
+            fromDay = Math.max(fromDay, snapshot.endDayOnOrBefore(after));
+        }
+        int toDay = to == null ? snapshot.dayCount() : snapshot.endDayOnOrBefore(to);
+        toDay = Math.max(fromDay, toDay);
+
+        LocalDate nextCursor = null;
+        if (limit != null && toDay - fromDay > limit) {
+            toDay = fromDay + limit;
+            nextCursor = snapshot.date(toDay - 1);
+        }
+        return new RateRange(snapshot, fromDay, toDay, resolveCurrencyColumns(snapshot, currencies), nextCursor);
+    }
+
+    // Columns of the given currencies (all if none) over [from, to], both optional. A forward fill
+    // ends today at the latest and, for each currency, at the end of its validity interval.
+    public RateTimeSeries getTimeSeries(List<String> currencies, LocalDate from, LocalDate to, FillPolicy fill) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ExchangeRateException("'from' must not be after 'to'", "INVALID_DATE_RANGE");
+        }
+        LocalDate today = LocalDate.now();
+        if (fill == FillPolicy.FORWARD && to != null && to.isAfter(today)) {
+            to = today;
+        }
+        RateSnapshot snapshot = rateStore.snapshot();
+        int[] columns = resolveCurrencyColumns(snapshot, currencies);
+        int[] fillEnds = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            LocalDate validTo = currencyRegistry.find(snapshot.currency(columns[i]))
+                    .map(CurrencyRegistry.Metadata::getValidTo)
+                    .orElse(null);
+            fillEnds[i] = validTo == null ? Integer.MAX_VALUE : (int) validTo.toEpochDay();
+        }
+        return RateTimeSeries.of(snapshot, columns, from, to, fill, fillEnds);
+    }
+
+    private int[] resolveCurrencyColumns(RateSnapshot snapshot, List<String> currencies) {
+        if (currencies == null || currencies.isEmpty()) {
+            int[] all = new int[snapshot.currencyCount()];
+            for (int c = 0; c < all.length; c++) {
+                all[c] = c;
+            }
+            return all;
+        }
+        int[] columns = new int[currencies.size()];
+        int count = 0;
+        for (String currency : currencies) {
+            int column = snapshot.currencyIndex(requireCurrency(currency.trim()).getCode());
+            if (column >= 0) {
+                columns[count++] = column;
+            }
+        }
+        return Arrays.copyOf(columns, count);
+    }
+
+    // Statistics for one currency over [from, to] (both optional), answered from the series'
+    // prefix sums and segment trees instead of scanning the history
+    public RateStatistics getRateStatistics(String currency, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ExchangeRateException("'from' must not be after 'to'", "INVALID_DATE_RANGE");
+        }
+        String code = requireCurrency(currency).getCode();
+
+        RateSnapshot snapshot = rateStore.snapshot();
+        int currencyIdx = snapshot.currencyIndex(code);
+        CurrencySeries series = currencyIdx < 0 ? null : snapshot.series(currencyIdx);
+        int fromIdx = series == null || from == null ? 0 : series.firstIndexOnOrAfter(from);
+        int toIdx = series == null ? 0 : to == null ? series.size() : series.endIndexOnOrBefore(to);
+        if (fromIdx >= toIdx) {
+            throw new RateNotFoundException("No rates found for " + code + " between " + from + " and " + to);
+        }
+
+        RangeStatistics statistics = series.statistics();
+        int n = toIdx - fromIdx;
+        BigDecimal first = BigDecimal.valueOf(series.scaledRate(fromIdx), RateSnapshot.SCALE);
+        BigDecimal last = BigDecimal.valueOf(series.scaledRate(toIdx - 1), RateSnapshot.SCALE);
+        return RateStatistics.builder()
+                .currency(code)
+                .from(series.date(fromIdx))
+                .to(series.date(toIdx - 1))
+                .observations(n)
+                .min(BigDecimal.valueOf(statistics.min(fromIdx, toIdx), RateSnapshot.SCALE))
+                .max(BigDecimal.valueOf(statistics.max(fromIdx, toIdx), RateSnapshot.SCALE))
+                .mean(BigDecimal.valueOf(statistics.sum(fromIdx, toIdx), RateSnapshot.SCALE)
+                        .divide(BigDecimal.valueOf(n), RateSnapshot.SCALE, RoundingMode.HALF_UP))
+                .standardDeviation(BigDecimal.valueOf(Math.sqrt(statistics.variance(fromIdx, toIdx)))
+                        .setScale(RateSnapshot.SCALE, RoundingMode.HALF_UP))
+                .first(first)
+                .last(last)
+                .changePercent(last.subtract(first).multiply(BigDecimal.valueOf(100))
+                        .divide(first, 4, RoundingMode.HALF_UP))
                 .build();
     }
-    public ConversionResult convertToEur(ConversionRequest request) throws NotFoundException {
-        validateCurrency(request.getCurrency());
 
-        ExchangeRateEntity entity = exchangeRateRepository.findByDate(request.getDate())
-                .orElseThrow(() -> new NotFoundException("No rates available for date " + request.getDate()));
+    // Resamples a currency into weekly, monthly or yearly points. Periods are always whole
+    // calendar periods; from/to (optional) select the periods that overlap them.
+    public List<SeriesPoint> getRateSeries(String currency, RollupInterval interval, SeriesAggregation aggregation,
+                                           LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ExchangeRateException("'from' must not be after 'to'", "INVALID_DATE_RANGE");
+        }
+        String code = requireCurrency(currency).getCode();
 
-        BigDecimal eurToForeignRate = Optional.ofNullable(entity.getRates().get(request.getCurrency()))
-                .orElseThrow(() -> new NotFoundException("No rate available for currency " + request.getCurrency()));
+        RateSnapshot snapshot = rateStore.snapshot();
+        int currencyIdx = snapshot.currencyIndex(code);
+        if (currencyIdx < 0) {
+            return Collections.emptyList();
+        }
+        SeriesRollup rollup = snapshot.series(currencyIdx).rollup(interval);
+        int fromIdx = from == null ? 0 : rollup.firstPeriodOnOrAfter(interval.periodStart(from));
+        int toIdx = to == null ? rollup.size() : rollup.endPeriodOnOrBefore(to);
 
-        if (eurToForeignRate.compareTo(BigDecimal.ZERO) == 0) {
-            throw new ExchangeRateException("Cannot convert with zero exchange rate", "ZERO_EXCHANGE_RATE");
+        List<SeriesPoint> points = new ArrayList<>(Math.max(0, toIdx - fromIdx));
+        for (int p = fromIdx; p < toIdx; p++) {
+            SeriesPoint.SeriesPointBuilder point = SeriesPoint.builder()
+                    .period(rollup.periodStart(p))
+                    .observations(rollup.count(p));
+            switch (aggregation) {
+                case AVG:
+                    point.value(BigDecimal.valueOf(rollup.sum(p), RateSnapshot.SCALE)
+                            .divide(BigDecimal.valueOf(rollup.count(p)), RateSnapshot.SCALE, RoundingMode.HALF_UP));
+                    break;
+                case LAST:
+                    point.value(BigDecimal.valueOf(rollup.close(p), RateSnapshot.SCALE));
+                    break;
+                default:
+                    point.open(BigDecimal.valueOf(rollup.open(p), RateSnapshot.SCALE))
+                            .high(BigDecimal.valueOf(rollup.high(p), RateSnapshot.SCALE))
+                            .low(BigDecimal.valueOf(rollup.low(p), RateSnapshot.SCALE))
+                            .close(BigDecimal.valueOf(rollup.close(p), RateSnapshot.SCALE));
+            }
+            points.add(point.build());
         }
+        return points;
+    }
 
+    public ConversionResult convertToEur(ConversionRequest request) {
+        return convert(request, EUR, DateLookupPolicy.STRICT);
+    }
+
+    // Converts between any two currencies through the EUR pivot
+    public ConversionResult convert(ConversionRequest request, String toCurrency) {
+        return convert(request, toCurrency, DateLookupPolicy.STRICT);
+    }
+
+    // With PREVIOUS/NEXT the nearest day holding rates for both currencies is used (see rateDate)
+    public ConversionResult convert(ConversionRequest request, String toCurrency, DateLookupPolicy policy) {
+        String from = conversionCurrency(request.getCurrency());
+        String to = conversionCurrency(toCurrency);
+
+        RateSnapshot snapshot = rateStore.snapshot();
+        LocalDate lookupDate = conversionLookupDate(request.getDate(), policy, from, to);
+        int day = lookupDate == null ? -1 : snapshot.resolveDay(lookupDate, policy,
+                conversionColumn(snapshot, from), conversionColumn(snapshot, to));
+        if (day >= 0 && !(isQuoted(from, snapshot.date(day)) && isQuoted(to, snapshot.date(day)))) {
+            day = -1;
+        }
+        metrics.recordLookup(request.getDate(), snapshot, day);
+        if (day < 0) {
+            throw new RateNotFoundException("No rates available for date " + request.getDate());
+        }
+        return convert(snapshot, day, request, from, to);
+    }
+
+    // Where a conversion lookup starts so that it stays inside both currencies' validity intervals
+    // (see CurrencyRegistry.Metadata.lookupDate), or null if no day can qualify
+    private LocalDate conversionLookupDate(LocalDate date, DateLookupPolicy policy, String from, String to) {
+        LocalDate lookupDate = date;
+        for (String currency : new String[]{from, to}) {
+            LocalDate edge = EUR.equals(currency) ? date : requireCurrency(currency).lookupDate(date, policy);
+            if (edge == null) {
+                return null;
+            }
+            boolean later = edge.isAfter(lookupDate);
+            if (later == (policy == DateLookupPolicy.NEXT)) {
+                lookupDate = edge;
+            }
+        }
+        return lookupDate;
+    }
+
+    private int conversionColumn(RateSnapshot snapshot, String currency) {
+        return EUR.equals(currency) ? -1 : snapshot.currencyIndex(currency);
+    }
+
+    // Converts many amounts in one pass. Each date is resolved once against a single snapshot;
+    // failures are reported per item instead of failing the batch.
+    public List<BatchConversionResult> convertBatch(List<ConversionRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new ExchangeRateException("Batch size exceeds limit of " + maxBatchSize, "BATCH_TOO_LARGE");
+        }
+
+        RateSnapshot snapshot = rateStore.snapshot();
+        Map<LocalDate, Integer> dayIndexes = new HashMap<>();
+        List<BatchConversionResult> results = new ArrayList<>(requests.size());
+        for (ConversionRequest request : requests) {
+            results.add(convertBatchItem(snapshot, dayIndexes, request));
+        }
+        return results;
+    }
+
+    private BatchConversionResult convertBatchItem(RateSnapshot snapshot, Map<LocalDate, Integer> dayIndexes,
+                                                   ConversionRequest request) {
+        if (request == null) {
+            return BatchConversionResult.failure("INVALID_CONVERSION_REQUEST", "Conversion request cannot be null");
+        }
+        Set<ConstraintViolation<ConversionRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return BatchConversionResult.failure("INVALID_CONVERSION_REQUEST", violations.iterator().next().getMessage());
+        }
+
+        try {
+            String from = requireCurrency(request.getCurrency()).getCode();
+
+            int day = dayIndexes.computeIfAbsent(request.getDate(), snapshot::dayIndex);
+            metrics.recordLookup(request.getDate(), snapshot, day);
+            if (day < 0) {
+                return BatchConversionResult.failure("CONVERSION_DATA_MISSING",
+                        "No rates available for date " + request.getDate());
+            }
+            return BatchConversionResult.success(convert(snapshot, day, request, from, EUR));
+        } catch (RateNotFoundException ex) {
+            return BatchConversionResult.failure("CONVERSION_DATA_MISSING", ex.getMessage());
+        } catch (ExchangeRateException ex) {
+            return BatchConversionResult.failure(ex.getErrorCode(), ex.getMessage());
+        }
+    }
+
+    // To EUR: amount x (1 / rate[from]) with the inverse rounded to 6 places, identical to the former
+    // amount x ONE.divide(rate, 6, HALF_UP) rounded HALF_UP to 4 places. To any other currency:
+    // amount x rate[to] x (1 / rate[from]) with the inverse precomputed at INVERSE_SCALE, so only the
+    // final amount is rounded. Both are multiplications only, with no division on the request path.
+    private ConversionResult convert(RateSnapshot snapshot, int day, ConversionRequest request, String fromCurrency,
+                                     String toCurrency) {
+        BigDecimal factor = EUR.equals(toCurrency)
+                ? BigDecimal.valueOf(euroFactor(snapshot, day, fromCurrency), RateSnapshot.SCALE)
+                : crossFactor(snapshot, day, fromCurrency, toCurrency);
+        BigDecimal convertedAmount = request.getAmount().multiply(factor).setScale(4, RoundingMode.HALF_UP);
+
+        return ConversionResult.builder()
+                .fromCurrency(fromCurrency)
+                .toCurrency(toCurrency)
+                .originalAmount(request.getAmount())
+                .date(request.getDate())
+                .rateDate(snapshot.date(day))
+                .convertedAmount(convertedAmount)
+                .build();
+    }
+
+    // Scaled foreign -> EUR factor (the 6-place inverse rate)
+    private long euroFactor(RateSnapshot snapshot, int day, String currency) {
+        return EUR.equals(currency) ? SCALED_ONE : snapshot.scaledInverseRate(day, rateColumn(snapshot, day, currency));
+    }
+
+    // rate[to] / rate[from] at SCALE + INVERSE_SCALE
+    private BigDecimal crossFactor(RateSnapshot snapshot, int day, String fromCurrency, String toCurrency) {
+        int fromIdx = EUR.equals(fromCurrency) ? -1 : rateColumn(snapshot, day, fromCurrency);
+        long rate = snapshot.scaledRate(day, rateColumn(snapshot, day, toCurrency));
+        long toEuro = fromIdx < 0 ? PRECISE_ONE : snapshot.scaledPreciseInverseRate(day, fromIdx);
+        if (toEuro == RateSnapshot.MISSING) {
+            // Rate too small or too large for a precise inverse, which does not happen for any quoted currency
+            return BigDecimal.valueOf(rate).divide(BigDecimal.valueOf(snapshot.scaledRate(day, fromIdx)),
+                    MathContext.DECIMAL128);
+        }
+        int scale = RateSnapshot.SCALE + RateSnapshot.INVERSE_SCALE;
         try {
-            BigDecimal foreignToEuroRate = BigDecimal.ONE.divide(eurToForeignRate, 6, RoundingMode.HALF_UP);
-            BigDecimal euroAmount = request.getAmount().multiply(foreignToEuroRate)
-                    .setScale(4, RoundingMode.HALF_UP);
-
-            return ConversionResult.builder()
-                    .fromCurrency(request.getCurrency())
-                    .originalAmount(request.getAmount())
-                    .date(request.getDate())
-                    .convertedAmount(euroAmount)
-                    .build();
+            return BigDecimal.valueOf(Math.multiplyExact(toEuro, rate), scale);
         } catch (ArithmeticException ex) {
-            throw new ExchangeRateException("Error during currency conversion", "CONVERSION_CALCULATION_ERROR");
+            return BigDecimal.valueOf(toEuro).multiply(BigDecimal.valueOf(rate)).movePointLeft(scale);
+        }
+    }
+
+    // Snapshot column of a currency that has a non-zero rate on the day
+    private int rateColumn(RateSnapshot snapshot, int day, String currency) {
+        int currencyIdx = snapshot.currencyIndex(currency);
+        long rate = currencyIdx < 0 ? RateSnapshot.MISSING : snapshot.scaledRate(day, currencyIdx);
+        if (rate == RateSnapshot.MISSING) {
+            throw new RateNotFoundException("No rate available for currency " + currency);
         }
+        if (rate == 0) {
+            throw new ExchangeRateException("Cannot convert with zero exchange rate", "ZERO_EXCHANGE_RATE");
+        }
+        return currencyIdx;
     }
 
     public Optional<BigDecimal> getExchangeRateForCurrency(LocalDate date, String currency) {
-        // Validate currency first
-        if (!supportedCurrencies.contains(currency.toUpperCase())) {
-            throw new ExchangeRateException("Unsupported currency: " + currency);
+        return getExchangeRateForCurrency(date, currency, DateLookupPolicy.STRICT).map(DatedRate::getRate);
+    }
+
+    // With PREVIOUS/NEXT this steps to the nearest day that has a rate for the currency
+    public Optional<DatedRate> getExchangeRateForCurrency(LocalDate date, String currency, DateLookupPolicy policy) {
+        CurrencyRegistry.Metadata series = requireCurrency(currency);
+
+        RateSnapshot snapshot = rateStore.snapshot();
+        int currencyIdx = snapshot.currencyIndex(series.getCode());
+        int day = resolveCurrencyDay(snapshot, series, currencyIdx, date, policy);
+        metrics.recordLookup(date, snapshot, day);
+        if (day < 0) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(snapshot.rate(day, currencyIdx))
+                .map(rate -> DatedRate.builder().date(snapshot.date(day)).rate(rate).build());
+    }
+
+    // Outside the currency's validity interval STRICT misses without searching the snapshot, and
+    // PREVIOUS/NEXT start from the edge of the interval instead of stepping through the gap day by day
+    private int resolveCurrencyDay(RateSnapshot snapshot, CurrencyRegistry.Metadata series, int currencyIdx,
+                                   LocalDate date, DateLookupPolicy policy) {
+        LocalDate lookupDate = series.lookupDate(date, policy);
+        if (currencyIdx < 0 || lookupDate == null) {
+            return -1;
+        }
+        return snapshot.resolveDay(lookupDate, policy, currencyIdx);
+    }
+
+    // Whether the currency is quoted on the date. EUR and currencies since dropped from the configuration
+    // have no interval.
+    private boolean isQuoted(String currency, LocalDate date) {
+        int index = currencyRegistry.indexOf(currency);
+        return index < 0 || currencyRegistry.get(index).isQuotedOn(date);
+    }
+
+    // The rates of one currency keyed by date, without those outside its validity interval, in the
+    // shape storeRates takes
+    private Map<LocalDate, Map<String, BigDecimal>> quotedRatesByDate(String currency, Map<LocalDate, BigDecimal> rates) {
+        Map<LocalDate, Map<String, BigDecimal>> ratesByDate = new HashMap<>();
+        rates.forEach((date, rate) -> {
+            if (isQuoted(currency, date)) {
+                ratesByDate.put(date, Collections.singletonMap(currency, rate));
+            }
+        });
+        if (ratesByDate.size() < rates.size()) {
+            log.warn("Skipping {} {} rates outside its validity interval", rates.size() - ratesByDate.size(), currency);
         }
+        return ratesByDate;
+    }
 
-        return exchangeRateRepository.findByDate(date)
-                .map(entity -> entity.getRates().get(currency.toUpperCase()));
+    // EUR or the registry's code for the currency
+    private String conversionCurrency(String currency) {
+        return EUR.equals(currency) ? EUR : requireCurrency(currency).getCode();
     }
-    private void validateCurrency(String currency) {
-        if (!supportedCurrencies.contains(currency)) {
+
+    private CurrencyRegistry.Metadata requireCurrency(String currency) {
+        int index = currencyRegistry.indexOf(currency);
+        if (index < 0) {
             throw new ExchangeRateException("Unsupported currency: " + currency);
         }
+        return currencyRegistry.get(index);
     }
 
     @PostConstruct
     @Transactional
     public void initializeData() {
-        if (exchangeRateRepository.count() == 0) {
-            log.info("Initializing database with recent exchange rates");
-            importAllHistoricalData();
+        if (clusterCoordinator.isEnabled()) {
+            initializeClusterNode();
+        } else if (loadSnapshotFile()) {
+            if (!importPath.isEmpty()) {
+                importFromFiles(Paths.get(importPath));
+            }
+            // Reads are served from the snapshot right away; catching up waits until the application is up
+            catchUpPending = syncOnStartup;
+        } else {
+            if (exchangeRateRepository.count() == 0) {
+                bulkLoader.migrateLegacyTables();
+            }
+            loadRateStore();
+            if (!importPath.isEmpty()) {
+                importFromFiles(Paths.get(importPath));
+            }
+            // On an empty database this degrades to a full history download per currency
+            if (syncOnStartup) {
+                syncIncremental();
+            }
+        }
+        materializeRollups();
+    }
+
+    // In clustered mode the shared database is the source of truth: every node loads it, and only
+    // the node holding the importer lease migrates, imports and syncs
+    private void initializeClusterNode() {
+        // Read before loading, so writes made meanwhile are picked up by the next refresh
+        seenDataVersion = clusterCoordinator.latestVersion();
+        rateChangeFeed.startAt(seenDataVersion);
+        boolean leader = clusterCoordinator.renewLeadership();
+        if (leader && exchangeRateRepository.count() == 0) {
+            bulkLoader.migrateLegacyTables();
+        }
+        loadRateStore();
+        if (leader && !importPath.isEmpty()) {
+            importFromFiles(Paths.get(importPath));
+        }
+        // Synced in the background, so the heartbeat keeps renewing the lease during a long first sync
+        catchUpPending = leader && syncOnStartup;
+    }
+
+    // Renews or takes over the importer lease. Other nodes refresh the rates written since the data
+    // version they last saw; a node that has just become the importer first catches up and then syncs.
+    @Scheduled(fixedDelayString = "${exchange-rate.cluster.heartbeat-interval:PT10S}",
+            initialDelayString = "${exchange-rate.cluster.heartbeat-interval:PT10S}")
+    public void clusterHeartbeat() {
+        if (!clusterCoordinator.isEnabled()) {
+            return;
+        }
+        boolean wasLeader = clusterCoordinator.isLeader();
+        boolean leader = clusterCoordinator.renewLeadership();
+        if (wasLeader && !leader) {
+            // Fetching is up to the new importer now, which catches up on becoming it
+            apiClient.clearFailedFetches();
+        }
+        if (leader && wasLeader) {
+            // Only the importer writes, so every newer version is its own and already in the store
+            seenDataVersion = clusterCoordinator.latestVersion();
+            return;
+        }
+        refreshFromDatabase();
+        if (leader) {
+            catchUpInBackground();
+        }
+    }
+
+    // The versions since the last refresh are folded into one date range, which also holds rows that did
+    // not change, so only rows differing from the store are merged and published (as one feed event
+    // with the newest version as its id)
+    private void refreshFromDatabase() {
+        clusterCoordinator.changesSince(seenDataVersion).ifPresent(change -> {
+            RateSnapshot snapshot = rateStore.snapshot();
+            Map<LocalDate, Map<String, BigDecimal>> changes = new HashMap<>();
+            for (Object[] row : exchangeRateRepository.findRateRowsBetween(change.getFrom(), change.getTo())) {
+                LocalDate date = (LocalDate) row[0];
+                String currency = storedCurrency(row[1]);
+                BigDecimal rate = (BigDecimal) row[2];
+                int dayIdx = snapshot.dayIndex(date);
+                int currencyIdx = snapshot.currencyIndex(currency);
+                long stored = dayIdx < 0 || currencyIdx < 0
+                        ? RateSnapshot.MISSING : snapshot.scaledRate(dayIdx, currencyIdx);
+                if (stored != RateSnapshot.toScaled(rate) && isQuoted(currency, date)) {
+                    changes.computeIfAbsent(date, k -> new HashMap<>()).put(currency, rate);
+                }
+            }
+            rateStore.merge(changes);
+            rateChangeFeed.publish(changes, change::getVersion);
+            seenDataVersion = change.getVersion();
+            log.info("Refreshed {} dates ({} to {}) up to data version {}",
+                    changes.size(), change.getFrom(), change.getTo(), change.getVersion());
+            materializeRollups();
+        });
+    }
+
+    // After a start from the snapshot file: seeds an empty database from it, then syncs the days
+    // published since the snapshot was written. Runs in the background so startup never waits on it.
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUpAfterStartup() {
+        if (!catchUpPending) {
+            return;
+        }
+        catchUpPending = false;
+        catchUpInBackground();
+    }
+
+    private void catchUpInBackground() {
+        Thread catchUp = new Thread(() -> {
+            try {
+                if (!rateStore.snapshot().isEmpty() && exchangeRateRepository.count() == 0) {
+                    int rows = bulkLoader.upsert(rateStore.snapshot());
+                    log.info("Seeded empty database with {} rates from the snapshot file", rows);
+                }
+                syncIncremental();
+            } catch (RuntimeException e) {
+                log.error("Background catch-up sync failed", e);
+            }
+        }, "rate-catch-up");
+        catchUp.setDaemon(true);
+        catchUp.start();
+    }
+
+    private boolean loadSnapshotFile() {
+        if (snapshotFile.isEmpty() || !Files.exists(Paths.get(snapshotFile))) {
+            return false;
+        }
+        try {
+            long start = System.nanoTime();
+            RateSnapshot snapshot = SnapshotFile.read(Paths.get(snapshotFile));
+            if (hasUnquotedRates(snapshot)) {
+                log.warn("Discarding rate snapshot {}: it holds rates outside their validity interval", snapshotFile);
+                Files.delete(Paths.get(snapshotFile));
+                return false;
+            }
+            rateStore.replace(snapshot);
+            log.info("Loaded rate snapshot {} in {} ms", snapshotFile, (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (IOException e) {
+            log.warn("Ignoring rate snapshot {}: {}", snapshotFile, e.getMessage());
+            return false;
+        }
+    }
+
+    // Written before a validity interval was configured, a snapshot file can hold rates the database
+    // load would skip
+    private boolean hasUnquotedRates(RateSnapshot snapshot) {
+        for (int c = 0; c < snapshot.currencyCount(); c++) {
+            CurrencySeries series = snapshot.series(c);
+            if (series.size() > 0 && !(isQuoted(snapshot.currency(c), series.date(0))
+                    && isQuoted(snapshot.currency(c), series.date(series.size() - 1)))) {
+                return true;
+            }
         }
-        fetchAndStoreCurrentRatesIfMissing();
+        return false;
+    }
+
+    // Rewrites the snapshot file when the store changed (or the file does not exist yet). If that fails
+    // the previous file is deleted: it lacks the rates just stored, and a start from it would never
+    // read them from the database. Without a file the next start loads the database instead.
+    private void writeSnapshotFile(boolean changed) {
+        if (snapshotFile.isEmpty() || (!changed && Files.exists(Paths.get(snapshotFile)))) {
+            return;
+        }
+        try {
+            SnapshotFile.write(rateStore.snapshot(), Paths.get(snapshotFile));
+            log.info("Wrote rate snapshot {}", snapshotFile);
+        } catch (IOException e) {
+            log.warn("Could not write rate snapshot {}, removing the outdated one: {}", snapshotFile, e.getMessage());
+            try {
+                Files.deleteIfExists(Paths.get(snapshotFile));
+            } catch (IOException deleteFailure) {
+                log.error("Could not remove outdated rate snapshot {}; delete it before the next start",
+                        snapshotFile, deleteFailure);
+            }
+        }
+    }
+
+    // Brings the store up to date and writes it to the given file, e.g. to bake into an image
+    public void exportSnapshot(Path target) throws IOException {
+        syncIncremental();
+        SnapshotFile.write(rateStore.snapshot(), target);
+        log.info("Exported {} dates and {} currencies to {}",
+                rateStore.snapshot().dayCount(), rateStore.snapshot().currencyCount(), target);
+    }
+
+    // Builds every currency's rollups on the current snapshot so /series requests never pay for it.
+    // A merge replaces the snapshot, so this runs again after each import or sync.
+    private void materializeRollups() {
+        RateSnapshot snapshot = rateStore.snapshot();
+        for (int c = 0; c < snapshot.currencyCount(); c++) {
+            for (RollupInterval interval : RollupInterval.values()) {
+                snapshot.series(c).rollup(interval);
+            }
+        }
+    }
+
+    private void loadRateStore() {
+        RateSnapshot.Builder builder = RateSnapshot.builder();
+        int skipped = 0;
+        for (Object[] row : exchangeRateRepository.findAllRateRows()) {
+            String currency = storedCurrency(row[1]);
+            if (isQuoted(currency, (LocalDate) row[0])) {
+                builder.put((LocalDate) row[0], currency, (BigDecimal) row[2]);
+            } else {
+                skipped++;
+            }
+        }
+        if (skipped > 0) {
+            log.warn("Ignoring {} stored rates outside their currency's validity interval", skipped);
+        }
+        rateStore.replace(builder.build());
+    }
+
+    // Codes read from the database are swapped for the registry's interned ones, so lookups with a
+    // resolved code match snapshot keys by reference. Currencies since dropped from the configuration stay.
+    private String storedCurrency(Object code) {
+        String canonical = currencyRegistry.canonical((String) code);
+        return canonical != null ? canonical : (String) code;
     }
 
     @Scheduled(cron = "${exchange-rate.update-cron:0 0 12 * * ?}")
     @Transactional
     public void fetchAndStoreCurrentRatesIfMissing() {
+        if (!clusterCoordinator.isLeader()) {
+            return;
+        }
         LocalDate today = LocalDate.now();
-        if (!exchangeRateRepository.existsByDate(today)) {
+        if (rateStore.snapshot().dayIndex(today) < 0) {
             log.info("Fetching current day exchange rates for {}", today);
-            Map<LocalDate, Map<String, BigDecimal>> rates = apiClient.fetchExchangeRates(today, today);
-            rates.forEach(this::storeRatesForDate);
+            syncIncremental();
         }
     }
 
-    private void storeRatesForDate(LocalDate date, Map<String, BigDecimal> currencyRates) {
-        ExchangeRateEntity entity = ExchangeRateEntity.builder()
-                .date(date)
-                .rates(currencyRates)
-                .build();
-        exchangeRateRepository.save(entity);
+    // Fetches every currency from the day after its last stored observation (minus the configured
+    // lookback window) and stores only observations that are new or whose value changed.
+    // Each currency is stored as soon as its response arrives.
+    @Transactional
+    public SyncResult syncIncremental() {
+        Timer.Sample sample = metrics.startTimer();
+        RateSnapshot snapshot = rateStore.snapshot();
+        Map<String, LocalDate> startDates = new HashMap<>();
+        for (String currency : currencyRegistry.codes()) {
+            int currencyIdx = snapshot.currencyIndex(currency);
+            int lastDay = currencyIdx < 0 ? -1 : snapshot.lastDayIndex(currencyIdx);
+            if (lastDay >= 0) {
+                startDates.put(currency, snapshot.date(lastDay).plusDays(1).minusDays(syncLookbackDays));
+            }
+        }
+
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger revised = new AtomicInteger();
+        storeAsTheyArrive(apiClient.fetchRatesSinceAsync(startDates, LocalDate.now()),
+                (currency, rates) -> storeChangedRates(currency, rates, added, revised));
+
+        log.info("Incremental sync finished: {} rates added, {} revised", added.get(), revised.get());
+        metrics.recordImport(sample, "incremental", added.get() + revised.get());
+        materializeRollups();
+        writeSnapshotFile(added.get() + revised.get() > 0);
+        return SyncResult.builder().added(added.get()).revised(revised.get()).build();
+    }
+
+    // Follow-up job for fetches that failed after all retries: re-fetches only those pieces.
+    // Like every write, only on the importer.
+    @Scheduled(fixedDelayString = "${bundesbank.api.failed-fetch.retry-interval:PT15M}",
+            initialDelayString = "${bundesbank.api.failed-fetch.retry-interval:PT15M}")
+    public void refetchFailedRanges() {
+        if (!clusterCoordinator.isLeader() || !apiClient.hasFailedFetches()) {
+            return;
+        }
+        Timer.Sample sample = metrics.startTimer();
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger revised = new AtomicInteger();
+        storeAsTheyArrive(apiClient.refetchFailedAsync(),
+                (currency, rates) -> storeChangedRates(currency, rates, added, revised));
+        log.info("Re-fetch of failed ranges finished: {} rates added, {} revised", added.get(), revised.get());
+        metrics.recordImport(sample, "incremental", added.get() + revised.get());
+        materializeRollups();
+        writeSnapshotFile(added.get() + revised.get() > 0);
+    }
+
+    private void storeChangedRates(String currency, Map<LocalDate, BigDecimal> rates,
+                                   AtomicInteger added, AtomicInteger revised) {
+        RateSnapshot snapshot = rateStore.snapshot();
+        int currencyIdx = snapshot.currencyIndex(currency);
+        Map<LocalDate, Map<String, BigDecimal>> changes = new HashMap<>();
+        quotedRatesByDate(currency, rates).forEach((date, quoted) -> {
+            BigDecimal rate = quoted.get(currency);
+            int dayIdx = snapshot.dayIndex(date);
+            long stored = dayIdx < 0 || currencyIdx < 0
+                    ? RateSnapshot.MISSING : snapshot.scaledRate(dayIdx, currencyIdx);
+            if (stored == RateSnapshot.toScaled(rate)) {
+                return;
+            }
+            if (stored == RateSnapshot.MISSING) {
+                added.incrementAndGet();
+            } else {
+                revised.incrementAndGet();
+            }
+            changes.put(date, Collections.singletonMap(currency, rate));
+        });
+        storeRates(changes);
+    }
+
+    private void storeAsTheyArrive(Map<String, CompletableFuture<Map<LocalDate, BigDecimal>>> futures,
+                                   BiConsumer<String, Map<LocalDate, BigDecimal>> store) {
+        CompletableFuture<?>[] stored = futures.entrySet().stream()
+                .map(entry -> entry.getValue()
+                        .thenAccept(rates -> store.accept(entry.getKey(), rates))
+                        .exceptionally(e -> {
+                            log.error("Failed to store rates for {}", entry.getKey(), e);
+                            return null;
+                        }))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(stored).join();
+    }
+
+    private void storeRates(Map<LocalDate, Map<String, BigDecimal>> ratesByDate) {
+        if (ratesByDate.isEmpty()) {
+            return;
+        }
+        int rows = bulkLoader.upsert(ratesByDate);
+        rateStore.merge(ratesByDate);
+        LocalDate from = Collections.min(ratesByDate.keySet());
+        LocalDate to = Collections.max(ratesByDate.keySet());
+        // In clustered mode the data version is the event's id on every node
+        rateChangeFeed.publish(ratesByDate, () -> clusterCoordinator.recordChange(from, to, rows));
+    }
+
+    // Seeds the store from downloaded series files instead of the API, for hosts without outbound
+    // network. Files are parsed in parallel and each one is stored as soon as it is parsed.
+    @Transactional
+    public void importFromFiles(Path source) {
+        log.info("Starting offline import from {}", source);
+        Timer.Sample sample = metrics.startTimer();
+        long start = System.nanoTime();
+        AtomicInteger rows = new AtomicInteger();
+        int parallelism = importParallelism > 0 ? importParallelism : Runtime.getRuntime().availableProcessors();
+        try {
+            offlineImporter.importFrom(source, parallelism, (fileCurrency, rates) -> {
+                String currency = currencyRegistry.canonical(fileCurrency);
+                if (currency == null) {
+                    log.warn("Skipping {} rates for unsupported currency {}", rates.size(), fileCurrency);
+                    return;
+                }
+                Map<LocalDate, Map<String, BigDecimal>> ratesByDate = quotedRatesByDate(currency, rates);
+                storeRates(ratesByDate);
+                rows.addAndGet(ratesByDate.size());
+            });
+        } catch (IOException e) {
+            log.error("Offline import from {} failed", source, e);
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("Completed offline import. Wrote {} rates in {} ms ({} rates/s)",
+                rows.get(), elapsedMillis, rows.get() * 1000L / elapsedMillis);
+        metrics.recordImport(sample, "offline", rows.get());
+        materializeRollups();
+        writeSnapshotFile(rows.get() > 0);
     }
 
     //@Scheduled(cron = "${exchange-rate.full-import-cron:0 0 3 * * SUN}") // Weekly on Sundays at 3AM
@@ -142,23 +879,23 @@ public class ExchangeRateService {
     public void importAllHistoricalData() {
         log.info("Starting full historical data import");
         try {
-            Map<LocalDate, Map<String, BigDecimal>> allRates = apiClient.fetchAllHistoricalRates();
-
-            allRates.forEach((date, rates) -> {
-                if (!exchangeRateRepository.existsByDate(date)) {
-                    ExchangeRateEntity entity = ExchangeRateEntity.builder()
-                            .date(date)
-                            .rates(rates)
-                            .build();
-                    exchangeRateRepository.save(entity);
-                    log.debug("Saved rates for {}", date);
-                }
+            Timer.Sample sample = metrics.startTimer();
+            long start = System.nanoTime();
+            AtomicInteger rows = new AtomicInteger();
+            storeAsTheyArrive(apiClient.fetchAllHistoricalRatesAsync(), (currency, rates) -> {
+                Map<LocalDate, Map<String, BigDecimal>> ratesByDate = quotedRatesByDate(currency, rates);
+                storeRates(ratesByDate);
+                rows.addAndGet(ratesByDate.size());
             });
 
-            log.info("Completed historical import. Processed {} dates", allRates.size());
+            log.info("Completed historical import. Wrote {} rates in {} ms",
+                    rows.get(), (System.nanoTime() - start) / 1_000_000);
+            metrics.recordImport(sample, "full", rows.get());
+            materializeRollups();
+            writeSnapshotFile(rows.get() > 0);
         } catch (Exception e) {
             log.error("Failed to import historical data", e);
         }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package com.bundesbank.service;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Remembers which (currency, date range) fetches gave up after all retries,
+// so a follow-up job can re-fetch exactly those pieces.
+@Slf4j
+@Component
+public class FailedFetchRegistry {
+
+    @Value
+    public static class FailedFetch {
+        String currency;
+        LocalDate startDate; // null means the full history
+        LocalDate endDate;   // null means up to the latest observation
+
+        boolean coveredBy(LocalDate start, LocalDate end) {
+            boolean startCovered = start == null || (startDate != null && !startDate.isBefore(start));
+            boolean endCovered = end == null || (endDate != null && !endDate.isAfter(end));
+            return startCovered && endCovered;
+        }
+
+        FailedFetch union(FailedFetch other) {
+            LocalDate start = startDate == null || other.startDate == null
+                    ? null : (startDate.isBefore(other.startDate) ? startDate : other.startDate);
+            LocalDate end = endDate == null || other.endDate == null
+                    ? null : (endDate.isAfter(other.endDate) ? endDate : other.endDate);
+            return new FailedFetch(currency, start, end);
+        }
+    }
+
+    private final Map<String, FailedFetch> failures = new ConcurrentHashMap<>();
+
+    public void record(String currency, LocalDate startDate, LocalDate endDate) {
+        FailedFetch failed = new FailedFetch(currency, startDate, endDate);
+        failures.merge(currency, failed, FailedFetch::union);
+        log.warn("Recorded failed fetch for {} ({} to {})", currency,
+                startDate == null ? "start" : startDate, endDate == null ? "latest" : endDate);
+    }
+
+    // Called after a successful fetch; forgets a recorded failure the fetch fully covered
+    public void resolve(String currency, LocalDate startDate, LocalDate endDate) {
+        failures.computeIfPresent(currency, (k, failed) -> failed.coveredBy(startDate, endDate) ? null : failed);
+    }
+
+    public void clear() {
+        failures.clear();
+    }
+
+    public boolean isEmpty() {
+        return failures.isEmpty();
+    }
+
+    public List<FailedFetch> pending() {
+        return new ArrayList<>(failures.values());
+    }
+}
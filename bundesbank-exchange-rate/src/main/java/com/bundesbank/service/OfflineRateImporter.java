@@ -0,0 +1,280 @@
+package com.bundesbank.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Reads Bundesbank series downloads (CSV, SDMX-JSON or SDMX-ML) from a directory or a ZIP file,
+// parsing the files in parallel and streaming, one task per file. Each parsed series is handed
+// to the consumer as soon as its file is done.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OfflineRateImporter {
+    // BBEX3.D.USD.EUR.BB.AC.000 as used in file names and CSV headers
+    private static final Pattern SERIES_KEY = Pattern.compile("BBEX3\\.D\\.([A-Z]{3})\\.EUR");
+    private static final Pattern CURRENCY_TOKEN = Pattern.compile("(?<![A-Za-z])([A-Z]{3})(?![A-Za-z])");
+
+    private final SdmxJsonParser sdmxJsonParser;
+    private final XMLInputFactory xmlInputFactory = createXmlInputFactory();
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    @FunctionalInterface
+    private interface Source {
+        InputStream open() throws IOException;
+    }
+
+    // Returns the number of observations read; consumer calls may come from several threads
+    public long importFrom(Path path, int parallelism, BiConsumer<String, Map<LocalDate, BigDecimal>> consumer)
+            throws IOException {
+        if (Files.isDirectory(path)) {
+            Map<String, Source> sources = new TreeMap<>();
+            try (Stream<Path> files = Files.list(path)) {
+                for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                    sources.put(file.getFileName().toString(), () -> Files.newInputStream(file));
+                }
+            }
+            return importAll(sources, parallelism, consumer);
+        }
+        try (ZipFile zip = new ZipFile(path.toFile())) {
+            Map<String, Source> sources = new TreeMap<>();
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                if (!entry.isDirectory()) {
+                    String name = entry.getName().substring(entry.getName().lastIndexOf('/') + 1);
+                    sources.put(name, () -> zip.getInputStream(entry));
+                }
+            }
+            return importAll(sources, parallelism, consumer);
+        }
+    }
+
+    private long importAll(Map<String, Source> sources, int parallelism,
+                           BiConsumer<String, Map<LocalDate, BigDecimal>> consumer) throws IOException {
+        sources.keySet().removeIf(name -> format(name) == null);
+        log.info("Importing {} rate files with {} threads", sources.size(), parallelism);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        long start = System.nanoTime();
+        AtomicInteger done = new AtomicInteger();
+        AtomicLong observations = new AtomicLong();
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            sources.forEach((name, source) -> tasks.add(executor.submit(() -> {
+                Map<String, Map<LocalDate, BigDecimal>> series = parseFile(name, source);
+                series.forEach(consumer);
+                long total = observations.addAndGet(series.values().stream().mapToLong(Map::size).sum());
+                long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+                log.info("Imported {} ({}/{} files, {} rates, {} rates/s)", name, done.incrementAndGet(),
+                        sources.size(), total, total * 1000 / elapsedMillis);
+                return null;
+            })));
+            for (Future<?> task : tasks) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    log.error("Rate file import failed", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Rate file import interrupted");
+        } finally {
+            executor.shutdownNow();
+        }
+        return observations.get();
+    }
+
+    private static String format(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".csv")) {
+            return "csv";
+        }
+        if (lower.endsWith(".json")) {
+            return "json";
+        }
+        if (lower.endsWith(".xml")) {
+            return "xml";
+        }
+        return null;
+    }
+
+    private Map<String, Map<LocalDate, BigDecimal>> parseFile(String name, Source source) throws IOException {
+        try (InputStream in = new BufferedInputStream(source.open())) {
+            switch (format(name)) {
+                case "csv":
+                    return parseCsv(name, in);
+                case "json":
+                    String currency = currencyFromName(name);
+                    if (currency == null) {
+                        log.warn("Skipping {}: no currency in the file name", name);
+                        return Collections.emptyMap();
+                    }
+                    Map<LocalDate, BigDecimal> rates = new HashMap<>();
+                    sdmxJsonParser.parse(in, currency, (date, ccy, rate) -> rates.put(date, rate));
+                    return Collections.singletonMap(currency, rates);
+                default:
+                    return parseXml(name, in);
+            }
+        }
+    }
+
+    private static String currencyFromName(String text) {
+        Matcher key = SERIES_KEY.matcher(text);
+        if (key.find()) {
+            return key.group(1);
+        }
+        Matcher token = CURRENCY_TOKEN.matcher(text);
+        while (token.find()) {
+            if (!"EUR".equals(token.group(1))) {
+                return token.group(1);
+            }
+        }
+        return null;
+    }
+
+    // Bundesbank time series CSV: a few header lines (series key, title, unit, ...) followed by
+    // "date,value,flags" rows. German downloads use ';' and decimal commas; "." marks a missing value.
+    private Map<String, Map<LocalDate, BigDecimal>> parseCsv(String name, InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String currency = null;
+        Map<LocalDate, BigDecimal> rates = new HashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            char delimiter = line.indexOf(';') >= 0 ? ';' : ',';
+            String[] fields = line.split(String.valueOf(delimiter), -1);
+            LocalDate date = parseDate(fields[0].trim());
+            if (date == null) {
+                if (currency == null) {
+                    currency = headerCurrency(line);
+                }
+                continue;
+            }
+            if (fields.length < 2) {
+                continue;
+            }
+            String value = fields[1].trim().replace("\"", "");
+            if (value.isEmpty() || ".".equals(value)) {
+                continue;
+            }
+            try {
+                rates.put(date, new BigDecimal(delimiter == ';' ? value.replace(',', '.') : value));
+            } catch (NumberFormatException e) {
+                log.debug("Skipping unparseable value {} for {} in {}", value, date, name);
+            }
+        }
+        if (currency == null) {
+            currency = currencyFromName(name);
+        }
+        if (currency == null) {
+            log.warn("Skipping {}: no currency in the header or file name", name);
+            return Collections.emptyMap();
+        }
+        return Collections.singletonMap(currency, rates);
+    }
+
+    private static String headerCurrency(String line) {
+        Matcher key = SERIES_KEY.matcher(line);
+        return key.find() ? key.group(1) : null;
+    }
+
+    private static LocalDate parseDate(String text) {
+        if (text.length() != 10) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(text.replace("\"", ""));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // SDMX-ML, either structure-specific (<Series BBK_STD_CURRENCY=".."><Obs TIME_PERIOD=".." OBS_VALUE=".."/>)
+    // or generic (<Value id="BBK_STD_CURRENCY" value=".."/>, <ObsDimension value=".."/><ObsValue value=".."/>)
+    private Map<String, Map<LocalDate, BigDecimal>> parseXml(String name, InputStream in) throws IOException {
+        Map<String, Map<LocalDate, BigDecimal>> series = new HashMap<>();
+        String currency = null;
+        LocalDate date = null;
+        BigDecimal rate = null;
+        try {
+            XMLStreamReader xml = xmlInputFactory.createXMLStreamReader(in);
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (xml.getLocalName()) {
+                        case "Series":
+                            String attribute = xml.getAttributeValue(null, "BBK_STD_CURRENCY");
+                            currency = attribute != null ? attribute : currencyFromName(name);
+                            break;
+                        case "Value":
+                            if ("BBK_STD_CURRENCY".equals(xml.getAttributeValue(null, "id"))) {
+                                currency = xml.getAttributeValue(null, "value");
+                            }
+                            break;
+                        case "Obs":
+                            date = parseDate(Objects.toString(xml.getAttributeValue(null, "TIME_PERIOD"), ""));
+                            rate = parseRate(xml.getAttributeValue(null, "OBS_VALUE"));
+                            break;
+                        case "ObsDimension":
+                            date = parseDate(Objects.toString(xml.getAttributeValue(null, "value"), ""));
+                            break;
+                        case "ObsValue":
+                            rate = parseRate(xml.getAttributeValue(null, "value"));
+                            break;
+                        default:
+                            break;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "Obs".equals(xml.getLocalName())) {
+                    if (currency != null && date != null && rate != null) {
+                        series.computeIfAbsent(currency, k -> new HashMap<>()).put(date, rate);
+                    }
+                    date = null;
+                    rate = null;
+                }
+            }
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid SDMX-ML in " + name + ": " + e.getMessage(), e);
+        }
+        return series;
+    }
+
+    private static BigDecimal parseRate(String value) {
+        if (value == null || value.isEmpty() || "NaN".equals(value) || ".".equals(value)) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
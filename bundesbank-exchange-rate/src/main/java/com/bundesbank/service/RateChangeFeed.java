@@ -0,0 +1,131 @@
+package com.bundesbank.service;
+
+import com.bundesbank.dto.RateChange;
+import com.bundesbank.dto.RateChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Push channel for stored rate changes, served as Server-Sent Events on /api/rates/changes.
+// Every batch of new or revised rates becomes one event. The latest events are kept, so a client
+// reconnecting with Last-Event-ID (or ?since=) receives exactly what it missed.
+// Event ids: in clustered mode the shared data version the batch was written under, so an id from one
+// replica is meaningful on all of them; otherwise a local counter starting at the startup time, so ids
+// from an earlier run of the node are never mistaken for its own.
+@Slf4j
+@Component
+public class RateChangeFeed {
+    private final Sinks.Many<Published> sink;
+    private final int bufferEvents;
+    private final int maxEventRates;
+    private final Duration heartbeat;
+    // Ids the buffered events follow on, oldest first
+    private final Deque<Long> bufferedFrom = new ArrayDeque<>();
+    // Id of the newest event, or the starting point before the first
+    private long latest = System.currentTimeMillis();
+
+    public RateChangeFeed(@Value("${exchange-rate.feed.buffer-events:1024}") int bufferEvents,
+                          @Value("${exchange-rate.feed.max-event-rates:1000}") int maxEventRates,
+                          @Value("${exchange-rate.feed.heartbeat:15s}") Duration heartbeat) {
+        this.sink = Sinks.many().replay().limit(bufferEvents);
+        this.bufferEvents = bufferEvents;
+        this.maxEventRates = maxEventRates;
+        this.heartbeat = heartbeat;
+    }
+
+    // Clustered mode: the feed starts at the data version the rate store was loaded at
+    public synchronized void startAt(long version) {
+        latest = version;
+    }
+
+    // Called once the rates are in the rate store, so clients reacting to an event can read them back.
+    // version supplies the data version the rates were written under, or 0 outside clustered mode; it
+    // is called while holding the feed's lock, so events are published in version order.
+    // Batches above max-event-rates (full or offline imports) are announced as a reset instead.
+    public synchronized void publish(Map<LocalDate, Map<String, BigDecimal>> ratesByDate, LongSupplier version) {
+        int rateCount = 0;
+        for (Map<String, BigDecimal> rates : ratesByDate.values()) {
+            rateCount += rates.size();
+        }
+        long id = version.getAsLong();
+        if (id <= 0) {
+            id = latest + 1;
+        }
+
+        RateChangeEvent event;
+        if (rateCount > maxEventRates) {
+            event = RateChangeEvent.reset(id);
+        } else {
+            List<RateChange> changes = new ArrayList<>(ratesByDate.size());
+            new TreeMap<>(ratesByDate).forEach((date, rates) -> changes.add(new RateChange(date, new TreeMap<>(rates))));
+            event = new RateChangeEvent(id, false, changes);
+        }
+        Sinks.EmitResult result = sink.tryEmitNext(new Published(latest, event));
+        if (result.isFailure()) {
+            log.warn("Could not publish rate change {}: {}", id, result);
+        }
+        bufferedFrom.addLast(latest);
+        if (bufferedFrom.size() > bufferEvents) {
+            bufferedFrom.removeFirst();
+        }
+        latest = id;
+    }
+
+    // Events after the given id (null: only future ones), then live events, interleaved with a comment
+    // every heartbeat so proxies keep the connection open and dead clients are noticed.
+    // A reset is sent first for an id this node cannot continue from: older than its buffer, or not
+    // issued yet (another node, or an earlier run). Within the buffer an event covers every change
+    // between the id before it and its own, so resuming from an id another replica issued is exact
+    // (or sends some rates again, which are the same values).
+    public Flux<ServerSentEvent<RateChangeEvent>> subscribe(Long afterId) {
+        Flux<RateChangeEvent> events = Flux.defer(() -> {
+            long newest;
+            long oldest;
+            synchronized (this) {
+                newest = latest;
+                oldest = bufferedFrom.isEmpty() ? latest : bufferedFrom.getFirst();
+            }
+            boolean unknown = afterId != null && (afterId > newest || afterId < oldest);
+            long after = afterId == null || unknown ? newest : afterId;
+            AtomicLong last = new AtomicLong(after);
+            Flux<RateChangeEvent> buffered = sink.asFlux()
+                    .filter(published -> published.getEvent().getSequence() > after)
+                    // An event following on an id later than the last one sent means events in between
+                    // left the buffer before this subscriber got them
+                    .concatMapIterable(published -> last.getAndSet(published.getEvent().getSequence())
+                            >= published.getFollows()
+                            ? Collections.singletonList(published.getEvent())
+                            : Arrays.asList(RateChangeEvent.reset(published.getFollows()), published.getEvent()));
+            return unknown ? Mono.just(RateChangeEvent.reset(newest)).concatWith(buffered) : buffered;
+        });
+
+        Flux<ServerSentEvent<RateChangeEvent>> keepAlive = Flux.interval(heartbeat, heartbeat)
+                .map(tick -> ServerSentEvent.<RateChangeEvent>builder().comment("keep-alive").build());
+        return Flux.merge(events.map(RateChangeFeed::toServerSentEvent), keepAlive);
+    }
+
+    private static ServerSentEvent<RateChangeEvent> toServerSentEvent(RateChangeEvent event) {
+        return ServerSentEvent.builder(event)
+                .id(Long.toString(event.getSequence()))
+                .event(event.isReset() ? "reset" : "rates")
+                .build();
+    }
+
+    // An event and the id of the one before it
+    @lombok.Value
+    private static class Published {
+        long follows;
+        RateChangeEvent event;
+    }
+}
@@ -0,0 +1,202 @@
+package com.bundesbank.service;
+
+import com.bundesbank.store.RateRange;
+import com.bundesbank.store.RateSnapshot;
+import com.bundesbank.store.RateTimeSeries;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+// Writes a rate range straight from the snapshot to the response stream,
+// one day at a time, without building an intermediate DTO list.
+@Component
+@RequiredArgsConstructor
+public class RateStreamWriter {
+    private final ObjectMapper objectMapper;
+    private final CBORFactory cborFactory = new CBORFactory();
+
+    // Same shape as ExchangeRateDto: [{"date": ..., "eurToForeignRates": {...}}, ...]
+    public void writeJson(RateRange range, OutputStream out) throws IOException {
+        RateSnapshot snapshot = range.getSnapshot();
+        int[] columns = range.getCurrencyColumns();
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.writeStartArray();
+            for (int day = range.getFromDay(); day < range.getToDay(); day++) {
+                generator.writeStartObject();
+                generator.writeStringField("date", snapshot.date(day).toString());
+                generator.writeObjectFieldStart("eurToForeignRates");
+                for (int column : columns) {
+                    long scaled = snapshot.scaledRate(day, column);
+                    if (scaled != RateSnapshot.MISSING) {
+                        generator.writeFieldName(snapshot.currency(column));
+                        generator.writeNumber(BigDecimal.valueOf(scaled, RateSnapshot.SCALE));
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    // Columnar CSV: a header "date,AUD,BGN,..." and one row per day; missing rates are empty fields
+    public void writeCsv(RateRange range, OutputStream out) throws IOException {
+        RateSnapshot snapshot = range.getSnapshot();
+        int[] columns = range.getCurrencyColumns();
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.US_ASCII), 64 * 1024);
+        writer.write("date");
+        for (int column : columns) {
+            writer.write(',');
+            writer.write(snapshot.currency(column));
+        }
+        writer.write('\n');
+        StringBuilder row = new StringBuilder();
+        for (int day = range.getFromDay(); day < range.getToDay(); day++) {
+            row.setLength(0);
+            row.append(snapshot.date(day));
+            for (int column : columns) {
+                row.append(',');
+                long scaled = snapshot.scaledRate(day, column);
+                if (scaled != RateSnapshot.MISSING) {
+                    appendScaled(row, scaled);
+                }
+            }
+            row.append('\n');
+            writer.append(row);
+        }
+        writer.flush();
+    }
+
+    // CBOR with the dates and currency codes sent once and one rate column per currency:
+    // {"scale": 6, "dates": [epoch days], "currencies": [codes], "rates": [[scaled rate or null per date], ...]}
+    // A rate is rates[c][d] / 10^scale.
+    public void writeCbor(RateRange range, OutputStream out) throws IOException {
+        RateSnapshot snapshot = range.getSnapshot();
+        int[] columns = range.getCurrencyColumns();
+        int fromDay = range.getFromDay();
+        int toDay = range.getToDay();
+
+        try (JsonGenerator generator = cborFactory.createGenerator(out)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.writeStartObject();
+            generator.writeNumberField("scale", RateSnapshot.SCALE);
+            generator.writeFieldName("dates");
+            generator.writeStartArray(toDay - fromDay);
+            for (int day = fromDay; day < toDay; day++) {
+                generator.writeNumber(snapshot.epochDay(day));
+            }
+            generator.writeEndArray();
+            generator.writeFieldName("currencies");
+            generator.writeStartArray(columns.length);
+            for (int column : columns) {
+                generator.writeString(snapshot.currency(column));
+            }
+            generator.writeEndArray();
+            generator.writeFieldName("rates");
+            generator.writeStartArray(columns.length);
+            for (int column : columns) {
+                generator.writeStartArray(toDay - fromDay);
+                for (int day = fromDay; day < toDay; day++) {
+                    long scaled = snapshot.scaledRate(day, column);
+                    if (scaled == RateSnapshot.MISSING) {
+                        generator.writeNull();
+                    } else {
+                        generator.writeNumber(scaled);
+                    }
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    // Each date once and one array per currency: {"dates": [...], "rates": {"USD": [rate or null per date], ...}}.
+    // Columns are written one after another through a single reused buffer.
+    public void writeTimeSeriesJson(RateTimeSeries series, OutputStream out) throws IOException {
+        int rows = series.rowCount();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.writeStartObject();
+            generator.writeFieldName("dates");
+            generator.writeStartArray(rows);
+            for (int row = 0; row < rows; row++) {
+                generator.writeString(LocalDate.ofEpochDay(series.epochDay(row)).toString());
+            }
+            generator.writeEndArray();
+            generator.writeObjectFieldStart("rates");
+            long[] values = new long[rows];
+            for (int column = 0; column < series.columnCount(); column++) {
+                series.readColumn(column, values);
+                generator.writeFieldName(series.currency(column));
+                generator.writeStartArray(rows);
+                for (int row = 0; row < rows; row++) {
+                    if (values[row] == RateSnapshot.MISSING) {
+                        generator.writeNull();
+                    } else {
+                        generator.writeNumber(BigDecimal.valueOf(values[row], RateSnapshot.SCALE));
+                    }
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    // Same layout as writeCsv: "date,USD,GBP" and one row per date
+    public void writeTimeSeriesCsv(RateTimeSeries series, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.US_ASCII), 64 * 1024);
+        writer.write("date");
+        for (int column = 0; column < series.columnCount(); column++) {
+            writer.write(',');
+            writer.write(series.currency(column));
+        }
+        writer.write('\n');
+        StringBuilder row = new StringBuilder();
+        RateTimeSeries.Cursor cursor = series.cursor();
+        while (cursor.next()) {
+            row.setLength(0);
+            row.append(LocalDate.ofEpochDay(cursor.epochDay()));
+            for (int column = 0; column < series.columnCount(); column++) {
+                row.append(',');
+                long scaled = cursor.rate(column);
+                if (scaled != RateSnapshot.MISSING) {
+                    appendScaled(row, scaled);
+                }
+            }
+            row.append('\n');
+            writer.append(row);
+        }
+        writer.flush();
+    }
+
+    // Same digits as BigDecimal.valueOf(scaled, SCALE).toPlainString() without allocating a BigDecimal
+    private static void appendScaled(StringBuilder target, long scaled) {
+        if (scaled < 0) {
+            target.append('-');
+            scaled = -scaled;
+        }
+        long unit = 1_000_000L; // 10^SCALE
+        target.append(scaled / unit).append('.');
+        String fraction = Long.toString(scaled % unit);
+        for (int i = fraction.length(); i < RateSnapshot.SCALE; i++) {
+            target.append('0');
+        }
+        target.append(fraction);
+    }
+}
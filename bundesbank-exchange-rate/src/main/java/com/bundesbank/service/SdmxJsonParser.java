@@ -0,0 +1,251 @@
+package com.bundesbank.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Token-level reader for Bundesbank SDMX-JSON responses. It only looks at
+// data.structure.dimensions.observation (for the TIME_PERIOD values) and
+// data.dataSets[0].series.*.observations, skipping everything else, and hands
+// each observation to the handler without building a BundesbankApiResponse tree.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SdmxJsonParser {
+    private static final String TIME_PERIOD = "TIME_PERIOD";
+
+    private final ObjectMapper objectMapper;
+
+    @FunctionalInterface
+    public interface ObservationHandler {
+        void accept(LocalDate date, String currency, BigDecimal rate);
+    }
+
+    // Parses one single-currency response and returns the number of observations emitted
+    public int parse(InputStream in, String currency, ObservationHandler handler) throws IOException {
+        ParseState state = new ParseState(currency, handler);
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return 0;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("data".equals(field)) {
+                    parseData(parser, state);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        state.flushPending();
+        return state.emitted;
+    }
+
+    private void parseData(JsonParser parser, ParseState state) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("structure".equals(field)) {
+                parseStructure(parser, state);
+            } else if ("dataSets".equals(field)) {
+                parseDataSets(parser, state);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void parseStructure(JsonParser parser, ParseState state) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("dimensions".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String dimensionGroup = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("observation".equals(dimensionGroup) && parser.currentToken() == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            parseObservationDimension(parser, state);
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    // One entry of structure.dimensions.observation; "id" may appear before or after "values"
+    private void parseObservationDimension(JsonParser parser, ParseState state) throws IOException {
+        String id = null;
+        List<String> values = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("id".equals(field)) {
+                id = parser.getText();
+            } else if ("values".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                values = new ArrayList<>();
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    String valueId = null;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String valueField = parser.getCurrentName();
+                        parser.nextToken();
+                        if ("id".equals(valueField)) {
+                            valueId = parser.getText();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    values.add(valueId);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (TIME_PERIOD.equals(id) && values != null) {
+            state.setTimePeriods(values);
+        }
+    }
+
+    private void parseDataSets(JsonParser parser, ParseState state) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        boolean first = true;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (!first || parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            first = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("series".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        parser.nextToken();
+                        parseSeries(parser, state);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private void parseSeries(JsonParser parser, ParseState state) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if (!"observations".equals(field) || parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String obsIndex = parser.getCurrentName();
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                JsonToken valueToken = parser.nextToken();
+                try {
+                    if (valueToken == JsonToken.VALUE_NUMBER_FLOAT || valueToken == JsonToken.VALUE_NUMBER_INT) {
+                        state.observation(Integer.parseInt(obsIndex), parser.getDecimalValue());
+                    } else if (valueToken == JsonToken.VALUE_STRING) {
+                        state.observation(Integer.parseInt(obsIndex), new BigDecimal(parser.getText()));
+                    }
+                } catch (NumberFormatException e) {
+                    log.warn("Failed to process observation {} for {}: {}", obsIndex, state.currency, e.getMessage());
+                }
+                if (valueToken != JsonToken.END_ARRAY) {
+                    parser.skipChildren();
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class ParseState {
+        private final String currency;
+        private final ObservationHandler handler;
+        private LocalDate[] timePeriods;
+        private int emitted;
+
+        // Observations seen before the structure block, replayed once periods are known
+        private List<Integer> pendingIndexes;
+        private List<BigDecimal> pendingRates;
+
+        private ParseState(String currency, ObservationHandler handler) {
+            this.currency = currency;
+            this.handler = handler;
+        }
+
+        private void setTimePeriods(List<String> values) {
+            timePeriods = new LocalDate[values.size()];
+            for (int i = 0; i < timePeriods.length; i++) {
+                try {
+                    timePeriods[i] = LocalDate.parse(values.get(i));
+                } catch (RuntimeException e) {
+                    log.warn("Unparseable time period {} for {}", values.get(i), currency);
+                }
+            }
+            flushPending();
+        }
+
+        private void observation(int index, BigDecimal rate) {
+            if (timePeriods == null) {
+                if (pendingIndexes == null) {
+                    pendingIndexes = new ArrayList<>();
+                    pendingRates = new ArrayList<>();
+                }
+                pendingIndexes.add(index);
+                pendingRates.add(rate);
+                return;
+            }
+            if (index >= 0 && index < timePeriods.length && timePeriods[index] != null) {
+                handler.accept(timePeriods[index], currency, rate);
+                emitted++;
+            }
+        }
+
+        private void flushPending() {
+            if (pendingIndexes == null || timePeriods == null) {
+                return;
+            }
+            for (int i = 0; i < pendingIndexes.size(); i++) {
+                observation(pendingIndexes.get(i), pendingRates.get(i));
+            }
+            pendingIndexes = null;
+            pendingRates = null;
+        }
+    }
+}
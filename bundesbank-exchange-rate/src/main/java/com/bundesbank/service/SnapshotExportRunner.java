@@ -0,0 +1,31 @@
+package com.bundesbank.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+
+// Offline command: with --exchange-rate.snapshot.export=<file> the application syncs, writes the
+// binary rate snapshot to <file> and exits instead of serving requests
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty("exchange-rate.snapshot.export")
+public class SnapshotExportRunner implements ApplicationRunner {
+    private final ExchangeRateService exchangeRateService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${exchange-rate.snapshot.export}")
+    private String target;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        exchangeRateService.exportSnapshot(Paths.get(target));
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -0,0 +1,170 @@
+package com.bundesbank.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// The currency universe: active codes from supported.currencies plus legacy ones, each mapped to a
+// small int index through a table over all 26^3 three-letter codes, so resolving a request's currency
+// is a few arithmetic steps with no hashing, case folding or allocation.
+@Slf4j
+@Component
+public class CurrencyRegistry {
+    private static final String DATA_FLOW = "BBEX3";
+    private static final String SERIES_KEY = "D.%s.EUR.BB.AC.000";
+    private static final int LETTERS = 26;
+
+    // index + 1 per three-letter code, 0 for codes outside the universe
+    private final short[] indexBySlot = new short[LETTERS * LETTERS * LETTERS];
+    private final List<Metadata> currencies = new ArrayList<>();
+    private final List<String> codes;
+    private final List<String> activeCodes;
+
+    public CurrencyRegistry(@Value("${supported.currencies}") List<String> supported,
+                            @Value("${exchange-rate.currencies.legacy:}") List<String> legacy,
+                            @Value("${exchange-rate.currencies.validity:}") List<String> validity) {
+        Map<String, LocalDate[]> intervals = parseValidity(validity);
+        List<String> active = new ArrayList<>();
+        for (String code : supported) {
+            if (register(code, true, intervals)) {
+                active.add(currencies.get(currencies.size() - 1).getCode());
+            }
+        }
+        for (String code : legacy) {
+            register(code, false, intervals);
+        }
+        List<String> all = new ArrayList<>(currencies.size());
+        currencies.forEach(currency -> all.add(currency.getCode()));
+        this.codes = Collections.unmodifiableList(all);
+        this.activeCodes = Collections.unmodifiableList(active);
+        log.info("Currency universe: {} active, {} legacy", activeCodes.size(), codes.size() - activeCodes.size());
+    }
+
+    private boolean register(String rawCode, boolean active, Map<String, LocalDate[]> intervals) {
+        String trimmed = rawCode.trim();
+        int slot = slot(trimmed);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Invalid currency code: '" + rawCode + "'");
+        }
+        if (indexBySlot[slot] != 0) {
+            return false;
+        }
+        String code = trimmed.toUpperCase(Locale.ROOT).intern();
+        LocalDate[] interval = intervals.getOrDefault(code, new LocalDate[2]);
+        currencies.add(new Metadata(currencies.size(), code, DATA_FLOW + "." + String.format(SERIES_KEY, code),
+                DATA_FLOW + "/" + String.format(SERIES_KEY, code), interval[0], interval[1], active));
+        indexBySlot[slot] = (short) currencies.size();
+        return true;
+    }
+
+    // Entries look like CYP:/2007-12-31 or RON:2005-07-01/ (ISO-8601 interval, either end open)
+    private static Map<String, LocalDate[]> parseValidity(List<String> entries) {
+        Map<String, LocalDate[]> intervals = new HashMap<>();
+        for (String entry : entries) {
+            String[] parts = entry.trim().split(":", 2);
+            String[] bounds = parts.length == 2 ? parts[1].split("/", -1) : new String[0];
+            if (bounds.length != 2) {
+                throw new IllegalArgumentException("Invalid currency validity '" + entry + "', expected CODE:from/to");
+            }
+            intervals.put(parts[0].trim().toUpperCase(Locale.ROOT),
+                    new LocalDate[]{parseBound(bounds[0]), parseBound(bounds[1])});
+        }
+        return intervals;
+    }
+
+    private static LocalDate parseBound(String bound) {
+        return bound.trim().isEmpty() ? null : LocalDate.parse(bound.trim());
+    }
+
+    // Position of a three-letter code (either case) in the 26^3 table, or -1
+    private static int slot(CharSequence code) {
+        if (code == null || code.length() != 3) {
+            return -1;
+        }
+        int slot = 0;
+        for (int i = 0; i < 3; i++) {
+            int letter = (code.charAt(i) | 0x20) - 'a';
+            if (letter < 0 || letter >= LETTERS) {
+                return -1;
+            }
+            slot = slot * LETTERS + letter;
+        }
+        return slot;
+    }
+
+    // Index of the currency in the universe (case-insensitive), or -1 if it is not part of it
+    public int indexOf(CharSequence code) {
+        int slot = slot(code);
+        return slot < 0 ? -1 : indexBySlot[slot] - 1;
+    }
+
+    public Metadata get(int index) {
+        return currencies.get(index);
+    }
+
+    public Optional<Metadata> find(CharSequence code) {
+        int index = indexOf(code);
+        return index < 0 ? Optional.empty() : Optional.of(currencies.get(index));
+    }
+
+    // The interned upper-case code, or null if the currency is not part of the universe
+    public String canonical(CharSequence code) {
+        int index = indexOf(code);
+        return index < 0 ? null : currencies.get(index).getCode();
+    }
+
+    public int size() {
+        return currencies.size();
+    }
+
+    public List<Metadata> currencies() {
+        return Collections.unmodifiableList(currencies);
+    }
+
+    // Active codes first, in configuration order, followed by the legacy ones
+    public List<String> codes() {
+        return codes;
+    }
+
+    public List<String> activeCodes() {
+        return activeCodes;
+    }
+
+    @lombok.Value
+    public static class Metadata {
+        int index;
+        String code;
+        // e.g. BBEX3.D.USD.EUR.BB.AC.000
+        String seriesKey;
+        // Data flow and key as the REST path expects them, e.g. BBEX3/D.USD.EUR.BB.AC.000
+        String dataPath;
+        // First and last day the currency is quoted; null means open-ended
+        LocalDate validFrom;
+        LocalDate validTo;
+        boolean active;
+
+        public boolean isQuotedOn(LocalDate date) {
+            return (validFrom == null || !date.isBefore(validFrom)) && (validTo == null || !date.isAfter(validTo));
+        }
+
+        // Last day worth fetching for a sync up to endDate
+        public LocalDate fetchEnd(LocalDate endDate) {
+            return validTo != null && validTo.isBefore(endDate) ? validTo : endDate;
+        }
+
+        // Where a lookup for the date has to start: the date itself inside the interval, otherwise
+        // the nearer edge if the policy walks towards it, or null when no rate can qualify
+        public LocalDate lookupDate(LocalDate date, DateLookupPolicy policy) {
+            if (validTo != null && date.isAfter(validTo)) {
+                return policy == DateLookupPolicy.PREVIOUS ? validTo : null;
+            }
+            if (validFrom != null && date.isBefore(validFrom)) {
+                return policy == DateLookupPolicy.NEXT ? validFrom : null;
+            }
+            return date;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bundesbank.store;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// One currency's history as dense arrays: only days that have a rate for it, in date order.
+// Derived from a snapshot on first use; range statistics and rollups are built lazily on top of it.
+public final class CurrencySeries {
+    private final String currency;
+    private final int[] epochDays;
+    private final long[] rates;
+    private final LazySlots<RangeStatistics> statistics = new LazySlots<>(1);
+    private final LazySlots<SeriesRollup> rollups = new LazySlots<>(RollupInterval.values().length);
+
+    private CurrencySeries(String currency, int[] epochDays, long[] rates) {
+        this.currency = currency;
+        this.epochDays = epochDays;
+        this.rates = rates;
+    }
+
+    static CurrencySeries of(RateSnapshot snapshot, int currencyIdx) {
+        int[] days = new int[snapshot.dayCount()];
+        long[] values = new long[snapshot.dayCount()];
+        int n = 0;
+        for (int d = 0; d < snapshot.dayCount(); d++) {
+            long scaled = snapshot.scaledRate(d, currencyIdx);
+            if (scaled != RateSnapshot.MISSING) {
+                days[n] = snapshot.epochDay(d);
+                values[n++] = scaled;
+            }
+        }
+        return new CurrencySeries(snapshot.currency(currencyIdx), Arrays.copyOf(days, n), Arrays.copyOf(values, n));
+    }
+
+    public String currency() {
+        return currency;
+    }
+
+    public int size() {
+        return epochDays.length;
+    }
+
+    public LocalDate date(int idx) {
+        return LocalDate.ofEpochDay(epochDays[idx]);
+    }
+
+    public int epochDay(int idx) {
+        return epochDays[idx];
+    }
+
+    public long scaledRate(int idx) {
+        return rates[idx];
+    }
+
+    // Index of the first observation on or after the given date (size() if there is none)
+    public int firstIndexOnOrAfter(LocalDate date) {
+        int idx = Arrays.binarySearch(epochDays, (int) date.toEpochDay());
+        return idx >= 0 ? idx : -idx - 1;
+    }
+
+    // Index just past the last observation on or before the given date
+    public int endIndexOnOrBefore(LocalDate date) {
+        int idx = Arrays.binarySearch(epochDays, (int) date.toEpochDay());
+        return idx >= 0 ? idx + 1 : -idx - 1;
+    }
+
+    public RangeStatistics statistics() {
+        return statistics.get(0, unused -> new RangeStatistics(rates));
+    }
+
+    public SeriesRollup rollup(RollupInterval interval) {
+        return rollups.get(interval.ordinal(), ordinal -> SeriesRollup.of(this, RollupInterval.values()[ordinal]));
+    }
+}
@@ -0,0 +1,21 @@
+package com.bundesbank.store;
+
+import com.bundesbank.exception.ExchangeRateException;
+
+// How a requested date is mapped to a stored business day
+public enum DateLookupPolicy {
+    STRICT,   // only the exact date
+    PREVIOUS, // the last available date on or before the requested one
+    NEXT;     // the first available date on or after the requested one
+
+    // Case-insensitive lookup used for request parameters
+    public static DateLookupPolicy parse(String value) {
+        for (DateLookupPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(value.trim())) {
+                return policy;
+            }
+        }
+        throw new ExchangeRateException("Unknown date policy: " + value + " (expected STRICT, PREVIOUS or NEXT)",
+                "INVALID_DATE_POLICY");
+    }
+}
@@ -0,0 +1,20 @@
+package com.bundesbank.store;
+
+import com.bundesbank.exception.ExchangeRateException;
+
+// Which rows a time series has
+public enum FillPolicy {
+    NONE,    // only stored business days, missing rates stay empty
+    FORWARD; // every calendar day, each currency carrying its latest rate forward
+
+    // Case-insensitive lookup used for request parameters
+    public static FillPolicy parse(String value) {
+        for (FillPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(value.trim())) {
+                return policy;
+            }
+        }
+        throw new ExchangeRateException("Unknown fill policy: " + value + " (expected NONE or FORWARD)",
+                "INVALID_FILL_POLICY");
+    }
+}
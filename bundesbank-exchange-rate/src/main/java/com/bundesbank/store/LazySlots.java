@@ -0,0 +1,36 @@
+package com.bundesbank.store;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+// Fixed slots of values derived on first use, with single-flight construction: when several threads
+// ask for an empty slot at once, one builds the value and the others wait for it instead of each
+// building their own copy. A build that throws leaves the slot empty, so the next caller retries.
+final class LazySlots<T> {
+    private final AtomicReferenceArray<CompletableFuture<T>> slots;
+
+    LazySlots(int size) {
+        this.slots = new AtomicReferenceArray<>(size);
+    }
+
+    T get(int slot, IntFunction<T> builder) {
+        CompletableFuture<T> value = slots.get(slot);
+        if (value == null) {
+            CompletableFuture<T> building = new CompletableFuture<>();
+            value = slots.compareAndExchange(slot, null, building);
+            if (value == null) {
+                try {
+                    T built = builder.apply(slot);
+                    building.complete(built);
+                    return built;
+                } catch (RuntimeException | Error e) {
+                    slots.set(slot, null);
+                    building.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        return value.join();
+    }
+}
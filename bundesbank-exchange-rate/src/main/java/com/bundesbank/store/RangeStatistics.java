@@ -0,0 +1,84 @@
+package com.bundesbank.store;
+
+// Answers aggregate queries over any index range [from, to) of a series without scanning it:
+// prefix sums give count, sum and variance in O(1), segment trees give min and max in O(log n).
+public final class RangeStatistics {
+    private final int size;
+    private final long[] prefixSums;
+    // Squared deviations from the series mean, in rate units; centring keeps the
+    // sum-of-squares formula from cancelling catastrophically in double precision
+    private final double[] prefixSquares;
+    private final double reference;
+    private final long[] minTree;
+    private final long[] maxTree;
+
+    RangeStatistics(long[] rates) {
+        size = rates.length;
+        prefixSums = new long[size + 1];
+        for (int i = 0; i < size; i++) {
+            prefixSums[i + 1] = prefixSums[i] + rates[i];
+        }
+        reference = size == 0 ? 0 : toDouble(prefixSums[size]) / size;
+        prefixSquares = new double[size + 1];
+        for (int i = 0; i < size; i++) {
+            double deviation = toDouble(rates[i]) - reference;
+            prefixSquares[i + 1] = prefixSquares[i] + deviation * deviation;
+        }
+
+        // Bottom-up segment trees: leaves at [size, 2 * size), node i covers its children 2i and 2i + 1
+        minTree = new long[2 * size];
+        maxTree = new long[2 * size];
+        System.arraycopy(rates, 0, minTree, size, size);
+        System.arraycopy(rates, 0, maxTree, size, size);
+        for (int i = size - 1; i > 0; i--) {
+            minTree[i] = Math.min(minTree[2 * i], minTree[2 * i + 1]);
+            maxTree[i] = Math.max(maxTree[2 * i], maxTree[2 * i + 1]);
+        }
+    }
+
+    private static double toDouble(long scaled) {
+        return scaled / 1_000_000d; // 10^SCALE
+    }
+
+    // Sum of the scaled rates in [from, to)
+    public long sum(int from, int to) {
+        return prefixSums[to] - prefixSums[from];
+    }
+
+    // Sample variance (n - 1) of the rates in [from, to), in rate units
+    public double variance(int from, int to) {
+        int n = to - from;
+        if (n < 2) {
+            return 0;
+        }
+        double deviationSum = toDouble(sum(from, to)) - n * reference;
+        double squares = prefixSquares[to] - prefixSquares[from];
+        return Math.max(0, (squares - deviationSum * deviationSum / n) / (n - 1));
+    }
+
+    public long min(int from, int to) {
+        long result = Long.MAX_VALUE;
+        for (int lo = from + size, hi = to + size; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) {
+                result = Math.min(result, minTree[lo++]);
+            }
+            if ((hi & 1) == 1) {
+                result = Math.min(result, minTree[--hi]);
+            }
+        }
+        return result;
+    }
+
+    public long max(int from, int to) {
+        long result = Long.MIN_VALUE;
+        for (int lo = from + size, hi = to + size; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) {
+                result = Math.max(result, maxTree[lo++]);
+            }
+            if ((hi & 1) == 1) {
+                result = Math.max(result, maxTree[--hi]);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,18 @@
+package com.bundesbank.store;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+// A window of a snapshot: days [fromDay, toDay) restricted to the given currency columns
+@Getter
+@AllArgsConstructor
+public class RateRange {
+    private final RateSnapshot snapshot;
+    private final int fromDay;
+    private final int toDay;
+    private final int[] currencyColumns;
+    // Date of the last row in this page when more rows follow, otherwise null
+    private final LocalDate nextCursor;
+}
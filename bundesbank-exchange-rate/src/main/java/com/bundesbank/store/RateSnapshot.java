@@ -0,0 +1,325 @@
+package com.bundesbank.store;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+
+// Immutable, read-optimized view of the whole rate history.
+// Rows are days (sorted epoch days), columns are currencies (sorted codes),
+// and every cell holds the EUR -> foreign rate as a long scaled by 10^SCALE.
+public final class RateSnapshot {
+    public static final int SCALE = 6;
+    public static final long MISSING = Long.MIN_VALUE;
+    // Scale of the precise inverse rates used for cross conversions
+    public static final int INVERSE_SCALE = 15;
+
+    // Smallest scaled rate whose inverse at INVERSE_SCALE fits in a long: ceil(10^21 / Long.MAX_VALUE)
+    private static final long MIN_PRECISE_INVERTIBLE = 109;
+    // Largest scaled rate the three-digit long division can take without overflowing the remainder
+    private static final long MAX_PRECISE_INVERTIBLE = Long.MAX_VALUE / 1000;
+
+    private static final RateSnapshot EMPTY = new RateSnapshot(new int[0], new String[0], new long[0]);
+
+    private final int[] epochDays;
+    private final String[] currencies;
+    private final Map<String, Integer> currencyIndex;
+    private final long[] rates;
+    // Foreign -> EUR rates (1 / rate, rounded HALF_UP to SCALE), precomputed so conversions never divide
+    private final long[] inverseRates;
+    // The same inverse at INVERSE_SCALE, so a cross rate built from it keeps 10+ significant digits
+    // even for currencies quoted in the thousands (IDR, KRW)
+    private final long[] preciseInverseRates;
+    // Per-currency dense series, derived on first use
+    private final LazySlots<CurrencySeries> series;
+
+    private RateSnapshot(int[] epochDays, String[] currencies, long[] rates) {
+        this.epochDays = epochDays;
+        this.currencies = currencies;
+        this.rates = rates;
+        this.inverseRates = new long[rates.length];
+        this.preciseInverseRates = new long[rates.length];
+        for (int i = 0; i < rates.length; i++) {
+            inverseRates[i] = invert(rates[i]);
+            preciseInverseRates[i] = invertPrecisely(rates[i]);
+        }
+        Map<String, Integer> index = new HashMap<>(currencies.length * 2);
+        for (int i = 0; i < currencies.length; i++) {
+            index.put(currencies[i], i);
+        }
+        this.currencyIndex = index;
+        this.series = new LazySlots<>(currencies.length);
+    }
+
+    // Wraps already sorted columns as read back by SnapshotFile
+    static RateSnapshot of(int[] epochDays, String[] currencies, long[] rates) {
+        return new RateSnapshot(epochDays, currencies, rates);
+    }
+
+    public static RateSnapshot empty() {
+        return EMPTY;
+    }
+
+    public boolean isEmpty() {
+        return epochDays.length == 0;
+    }
+
+    public int dayCount() {
+        return epochDays.length;
+    }
+
+    public int currencyCount() {
+        return currencies.length;
+    }
+
+    public String currency(int currencyIdx) {
+        return currencies[currencyIdx];
+    }
+
+    public LocalDate date(int dayIdx) {
+        return LocalDate.ofEpochDay(epochDays[dayIdx]);
+    }
+
+    public int epochDay(int dayIdx) {
+        return epochDays[dayIdx];
+    }
+
+    // Index of the given date, or a negative value if no rates are stored for it
+    public int dayIndex(LocalDate date) {
+        return Arrays.binarySearch(epochDays, (int) date.toEpochDay());
+    }
+
+    // Maps a requested date to a stored day under the given policy; -1 if no day qualifies
+    public int resolveDay(LocalDate date, DateLookupPolicy policy) {
+        int idx = dayIndex(date);
+        if (idx >= 0) {
+            return idx;
+        }
+        int insertion = -idx - 1;
+        switch (policy) {
+            case PREVIOUS:
+                return insertion - 1;
+            case NEXT:
+                return insertion < epochDays.length ? insertion : -1;
+            default:
+                return -1;
+        }
+    }
+
+    // Like resolveDay, but PREVIOUS/NEXT keep moving until every given currency column
+    // has a rate. Negative columns (e.g. EUR, which is always 1) are ignored.
+    public int resolveDay(LocalDate date, DateLookupPolicy policy, int... currencyColumns) {
+        int day = resolveDay(date, policy);
+        if (policy == DateLookupPolicy.STRICT) {
+            return day;
+        }
+        int step = policy == DateLookupPolicy.PREVIOUS ? -1 : 1;
+        while (day >= 0 && day < epochDays.length && !hasRates(day, currencyColumns)) {
+            day += step;
+        }
+        return day < epochDays.length ? day : -1;
+    }
+
+    private boolean hasRates(int dayIdx, int[] currencyColumns) {
+        for (int column : currencyColumns) {
+            if (column >= 0 && scaledRate(dayIdx, column) == MISSING) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Index of the first stored date on or after the given date (dayCount() if there is none)
+    public int firstDayOnOrAfter(LocalDate date) {
+        int idx = dayIndex(date);
+        return idx >= 0 ? idx : -idx - 1;
+    }
+
+    // Index just past the last stored date on or before the given date
+    public int endDayOnOrBefore(LocalDate date) {
+        int idx = dayIndex(date);
+        return idx >= 0 ? idx + 1 : -idx - 1;
+    }
+
+    // Index of the given currency code, or -1 if the snapshot has no column for it
+    public int currencyIndex(String currency) {
+        Integer idx = currencyIndex.get(currency);
+        return idx == null ? -1 : idx;
+    }
+
+    // Index of the latest day holding a rate for the currency, or -1 if it has none
+    public int lastDayIndex(int currencyIdx) {
+        for (int d = epochDays.length - 1; d >= 0; d--) {
+            if (scaledRate(d, currencyIdx) != MISSING) {
+                return d;
+            }
+        }
+        return -1;
+    }
+
+    // The currency's observations as a dense series; built once per snapshot
+    public CurrencySeries series(int currencyIdx) {
+        return series.get(currencyIdx, idx -> CurrencySeries.of(this, idx));
+    }
+
+    public long scaledRate(int dayIdx, int currencyIdx) {
+        return rates[dayIdx * currencies.length + currencyIdx];
+    }
+
+    public BigDecimal rate(int dayIdx, int currencyIdx) {
+        long scaled = scaledRate(dayIdx, currencyIdx);
+        return scaled == MISSING ? null : BigDecimal.valueOf(scaled, SCALE);
+    }
+
+    // 1 foreign unit in EUR, equal to BigDecimal.ONE.divide(rate, SCALE, HALF_UP); MISSING for absent or zero rates
+    public long scaledInverseRate(int dayIdx, int currencyIdx) {
+        return inverseRates[dayIdx * currencies.length + currencyIdx];
+    }
+
+    public BigDecimal inverseRate(int dayIdx, int currencyIdx) {
+        long scaled = scaledInverseRate(dayIdx, currencyIdx);
+        return scaled == MISSING ? null : BigDecimal.valueOf(scaled, SCALE);
+    }
+
+    // 1 foreign unit in EUR at INVERSE_SCALE, rounded HALF_UP; MISSING for absent or zero rates and for
+    // rates below 0.000109, whose inverse does not fit, or above about 9.2 billion
+    public long scaledPreciseInverseRate(int dayIdx, int currencyIdx) {
+        return preciseInverseRates[dayIdx * currencies.length + currencyIdx];
+    }
+
+    // 64-bit hash of a day's rates for the given columns (the whole row if none are given),
+    // covering the date, the currency codes and the scaled values
+    public long contentHash(int dayIdx, int... currencyColumns) {
+        long hash = mix(epochDays[dayIdx]);
+        int count = currencyColumns.length == 0 ? currencies.length : currencyColumns.length;
+        for (int i = 0; i < count; i++) {
+            int column = currencyColumns.length == 0 ? i : currencyColumns[i];
+            hash = mix(hash * 31 + currencies[column].hashCode());
+            hash = mix(hash * 31 + scaledRate(dayIdx, column));
+        }
+        return hash;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    public Map<String, BigDecimal> ratesForDay(int dayIdx) {
+        Map<String, BigDecimal> result = new LinkedHashMap<>();
+        int offset = dayIdx * currencies.length;
+        for (int c = 0; c < currencies.length; c++) {
+            long scaled = rates[offset + c];
+            if (scaled != MISSING) {
+                result.put(currencies[c], BigDecimal.valueOf(scaled, SCALE));
+            }
+        }
+        return result;
+    }
+
+    // With both sides scaled by 10^SCALE, 1 / rate is 10^(2 * SCALE) / scaled, rounded half up
+    private static long invert(long scaledRate) {
+        if (scaledRate == MISSING || scaledRate <= 0) {
+            return MISSING;
+        }
+        long numerator = 1_000_000_000_000L; // 10^(2 * SCALE)
+        return (2 * numerator + scaledRate) / (2 * scaledRate);
+    }
+
+    // 10^(SCALE + INVERSE_SCALE) / scaled, by long division three digits at a time, as the
+    // numerator itself does not fit in a long
+    private static long invertPrecisely(long scaledRate) {
+        if (scaledRate < MIN_PRECISE_INVERTIBLE || scaledRate > MAX_PRECISE_INVERTIBLE) {
+            return MISSING;
+        }
+        long quotient = 0;
+        long remainder = 1;
+        for (int digits = 0; digits < SCALE + INVERSE_SCALE; digits += 3) {
+            remainder *= 1000;
+            quotient = quotient * 1000 + remainder / scaledRate;
+            remainder %= scaledRate;
+        }
+        return 2 * remainder >= scaledRate ? quotient + 1 : quotient;
+    }
+
+    public static long toScaled(BigDecimal rate) {
+        return rate.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // Starts a new snapshot pre-filled with the contents of this one
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        for (String currency : currencies) {
+            builder.currencyIndex.put(currency, builder.currencyIndex.size());
+        }
+        for (int d = 0; d < epochDays.length; d++) {
+            int offset = d * currencies.length;
+            builder.rows.put(epochDays[d], Arrays.copyOfRange(rates, offset, offset + currencies.length));
+        }
+        return builder;
+    }
+
+    public static final class Builder {
+        private final Map<String, Integer> currencyIndex = new HashMap<>();
+        private final TreeMap<Integer, long[]> rows = new TreeMap<>();
+
+        private Builder() {
+        }
+
+        public Builder put(LocalDate date, String currency, BigDecimal rate) {
+            return put((int) date.toEpochDay(), currency, toScaled(rate));
+        }
+
+        public Builder putAll(Map<LocalDate, Map<String, BigDecimal>> ratesByDate) {
+            ratesByDate.forEach((date, currencyRates) ->
+                    currencyRates.forEach((currency, rate) -> put(date, currency, rate)));
+            return this;
+        }
+
+        public Builder put(int epochDay, String currency, long scaledRate) {
+            int column = currencyIndex.computeIfAbsent(currency, k -> currencyIndex.size());
+            long[] row = rows.get(epochDay);
+            if (row == null || row.length <= column) {
+                long[] grown = new long[Math.max(column + 1, currencyIndex.size())];
+                Arrays.fill(grown, MISSING);
+                if (row != null) {
+                    System.arraycopy(row, 0, grown, 0, row.length);
+                }
+                row = grown;
+                rows.put(epochDay, row);
+            }
+            row[column] = scaledRate;
+            return this;
+        }
+
+        public RateSnapshot build() {
+            String[] currencies = currencyIndex.keySet().toArray(new String[0]);
+            Arrays.sort(currencies);
+            int[] columnOf = new int[currencies.length];
+            for (int c = 0; c < currencies.length; c++) {
+                columnOf[currencyIndex.get(currencies[c])] = c;
+            }
+
+            int[] epochDays = new int[rows.size()];
+            long[] rates = new long[rows.size() * currencies.length];
+            Arrays.fill(rates, MISSING);
+            int d = 0;
+            for (Map.Entry<Integer, long[]> entry : rows.entrySet()) {
+                epochDays[d] = entry.getKey();
+                long[] row = entry.getValue();
+                int offset = d * currencies.length;
+                for (int column = 0; column < row.length; column++) {
+                    rates[offset + columnOf[column]] = row[column];
+                }
+                d++;
+            }
+            return new RateSnapshot(epochDays, currencies, rates);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.bundesbank.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+// Holds the current rate snapshot. Readers just grab the volatile reference;
+// writers build a new immutable snapshot and swap it in, so reads never block.
+@Slf4j
+@Component
+public class RateStore {
+    private volatile RateSnapshot snapshot = RateSnapshot.empty();
+
+    public RateSnapshot snapshot() {
+        return snapshot;
+    }
+
+    public synchronized void replace(RateSnapshot newSnapshot) {
+        snapshot = newSnapshot;
+        log.info("Rate store loaded with {} dates and {} currencies",
+                newSnapshot.dayCount(), newSnapshot.currencyCount());
+    }
+
+    public synchronized void merge(Map<LocalDate, Map<String, BigDecimal>> ratesByDate) {
+        if (ratesByDate.isEmpty()) {
+            return;
+        }
+        snapshot = snapshot.toBuilder().putAll(ratesByDate).build();
+        log.debug("Merged {} dates into rate store", ratesByDate.size());
+    }
+}
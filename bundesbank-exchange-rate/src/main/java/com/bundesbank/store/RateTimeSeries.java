@@ -0,0 +1,147 @@
+package com.bundesbank.store;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Currency columns of a snapshot over a date window. With FillPolicy.NONE the rows are the stored days;
+// with FORWARD they are all calendar days from start to end, and each currency repeats its latest rate
+// (from before the window, if need be) on weekends, holidays and days it has no rate of its own, up to
+// its fill end (e.g. the last day of a legacy currency).
+public final class RateTimeSeries {
+    private final RateSnapshot snapshot;
+    private final int[] currencyColumns;
+    private final int fromDay;
+    private final int toDay;
+    private final FillPolicy fill;
+    private final int startEpochDay;
+    private final int rowCount;
+    // Latest rate before the window per column, the starting point of a fill
+    private final long[] carried;
+    // Last epoch day a rate is carried to, per column
+    private final int[] fillEnds;
+
+    private RateTimeSeries(RateSnapshot snapshot, int[] currencyColumns, int fromDay, int toDay, FillPolicy fill,
+                           int startEpochDay, int rowCount, long[] carried, int[] fillEnds) {
+        this.snapshot = snapshot;
+        this.currencyColumns = currencyColumns;
+        this.fromDay = fromDay;
+        this.toDay = toDay;
+        this.fill = fill;
+        this.startEpochDay = startEpochDay;
+        this.rowCount = rowCount;
+        this.carried = carried;
+        this.fillEnds = fillEnds;
+    }
+
+    // from/to are optional and default to the first and last stored day. fillEnds holds the last epoch day
+    // each column may be filled to (Integer.MAX_VALUE for no limit); it is ignored without a fill.
+    public static RateTimeSeries of(RateSnapshot snapshot, int[] currencyColumns, LocalDate from, LocalDate to,
+                                    FillPolicy fill, int[] fillEnds) {
+        int fromDay = from == null ? 0 : snapshot.firstDayOnOrAfter(from);
+        int toDay = Math.max(fromDay, to == null ? snapshot.dayCount() : snapshot.endDayOnOrBefore(to));
+        if (fill == FillPolicy.NONE) {
+            return new RateTimeSeries(snapshot, currencyColumns, fromDay, toDay, fill, 0, toDay - fromDay, null, null);
+        }
+
+        if (snapshot.isEmpty()) {
+            return new RateTimeSeries(snapshot, currencyColumns, fromDay, toDay, fill, 0, 0, null, null);
+        }
+        // Days before the first stored one could only hold empty rows
+        int start = Math.max(from == null ? 0 : (int) from.toEpochDay(), snapshot.epochDay(0));
+        int end = to != null ? (int) to.toEpochDay() : snapshot.epochDay(snapshot.dayCount() - 1);
+        long[] carried = new long[currencyColumns.length];
+        for (int i = 0; i < currencyColumns.length; i++) {
+            CurrencySeries series = snapshot.series(currencyColumns[i]);
+            int before = series.endIndexOnOrBefore(LocalDate.ofEpochDay(start - 1L));
+            carried[i] = before > 0 ? series.scaledRate(before - 1) : RateSnapshot.MISSING;
+        }
+        return new RateTimeSeries(snapshot, currencyColumns, fromDay, toDay, fill, start,
+                Math.max(0, end - start + 1), carried, fillEnds);
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public int columnCount() {
+        return currencyColumns.length;
+    }
+
+    public String currency(int column) {
+        return snapshot.currency(currencyColumns[column]);
+    }
+
+    public int epochDay(int row) {
+        return fill == FillPolicy.NONE ? snapshot.epochDay(fromDay + row) : startEpochDay + row;
+    }
+
+    // Writes one column's value for every row into target (at least rowCount() long), MISSING where unknown
+    public void readColumn(int column, long[] target) {
+        int currencyIdx = currencyColumns[column];
+        if (fill == FillPolicy.NONE) {
+            for (int row = 0; row < rowCount; row++) {
+                target[row] = snapshot.scaledRate(fromDay + row, currencyIdx);
+            }
+            return;
+        }
+        long value = carried[column];
+        int day = fromDay;
+        for (int row = 0; row < rowCount; row++) {
+            if (day < toDay && snapshot.epochDay(day) == startEpochDay + row) {
+                long stored = snapshot.scaledRate(day++, currencyIdx);
+                if (stored != RateSnapshot.MISSING) {
+                    value = stored;
+                }
+            }
+            if (startEpochDay + row > fillEnds[column]) {
+                value = RateSnapshot.MISSING;
+            }
+            target[row] = value;
+        }
+    }
+
+    // Walks the rows in order; rate(column) is the value of the current row
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public final class Cursor {
+        private final long[] values = new long[currencyColumns.length];
+        private int row = -1;
+        private int day = fromDay;
+
+        private Cursor() {
+            if (carried != null) {
+                System.arraycopy(carried, 0, values, 0, values.length);
+            } else {
+                Arrays.fill(values, RateSnapshot.MISSING);
+            }
+        }
+
+        public boolean next() {
+            if (row + 1 >= rowCount) {
+                return false;
+            }
+            row++;
+            boolean stored = fill == FillPolicy.NONE || (day < toDay && snapshot.epochDay(day) == startEpochDay + row);
+            for (int c = 0; c < values.length; c++) {
+                long rate = stored ? snapshot.scaledRate(day, currencyColumns[c]) : RateSnapshot.MISSING;
+                if (fill == FillPolicy.NONE || rate != RateSnapshot.MISSING || startEpochDay + row > fillEnds[c]) {
+                    values[c] = rate;
+                }
+            }
+            if (stored) {
+                day++;
+            }
+            return true;
+        }
+
+        public int epochDay() {
+            return RateTimeSeries.this.epochDay(row);
+        }
+
+        public long rate(int column) {
+            return values[column];
+        }
+    }
+}
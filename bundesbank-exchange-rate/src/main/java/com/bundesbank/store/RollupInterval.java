@@ -0,0 +1,35 @@
+package com.bundesbank.store;
+
+import com.bundesbank.exception.ExchangeRateException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+// Calendar periods a currency series can be resampled into
+public enum RollupInterval {
+    WEEK,  // ISO weeks, starting on Monday
+    MONTH,
+    YEAR;
+
+    public LocalDate periodStart(LocalDate date) {
+        switch (this) {
+            case WEEK:
+                return date.with(DayOfWeek.MONDAY);
+            case MONTH:
+                return date.withDayOfMonth(1);
+            default:
+                return date.withDayOfYear(1);
+        }
+    }
+
+    // Case-insensitive lookup used for request parameters
+    public static RollupInterval parse(String value) {
+        for (RollupInterval interval : values()) {
+            if (interval.name().equalsIgnoreCase(value.trim())) {
+                return interval;
+            }
+        }
+        throw new ExchangeRateException("Unknown interval: " + value + " (expected week, month or year)",
+                "INVALID_INTERVAL");
+    }
+}
@@ -0,0 +1,21 @@
+package com.bundesbank.store;
+
+import com.bundesbank.exception.ExchangeRateException;
+
+// What a resampled series reports per period
+public enum SeriesAggregation {
+    AVG,  // mean of the period's rates
+    LAST, // last rate of the period, e.g. the month-end rate
+    OHLC; // first, highest, lowest and last rate
+
+    // Case-insensitive lookup used for request parameters
+    public static SeriesAggregation parse(String value) {
+        for (SeriesAggregation aggregation : values()) {
+            if (aggregation.name().equalsIgnoreCase(value.trim())) {
+                return aggregation;
+            }
+        }
+        throw new ExchangeRateException("Unknown aggregation: " + value + " (expected avg, last or ohlc)",
+                "INVALID_AGGREGATION");
+    }
+}
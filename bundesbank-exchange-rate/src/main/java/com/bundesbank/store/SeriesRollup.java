@@ -0,0 +1,100 @@
+package com.bundesbank.store;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// A currency series resampled into calendar periods: per period the first/high/low/last
+// rate, the sum for averages and the observation count, all scaled like RateSnapshot.
+public final class SeriesRollup {
+    private final int[] periodStarts; // epoch day of each period's first calendar day
+    private final int[] counts;
+    private final long[] opens;
+    private final long[] highs;
+    private final long[] lows;
+    private final long[] closes;
+    private final long[] sums;
+
+    private SeriesRollup(int periods) {
+        periodStarts = new int[periods];
+        counts = new int[periods];
+        opens = new long[periods];
+        highs = new long[periods];
+        lows = new long[periods];
+        closes = new long[periods];
+        sums = new long[periods];
+    }
+
+    static SeriesRollup of(CurrencySeries series, RollupInterval interval) {
+        // Period boundaries are found in one pass; the aggregates then come from the range statistics
+        int[] boundaries = new int[series.size() + 1];
+        int periods = 0;
+        int currentStart = Integer.MIN_VALUE;
+        for (int i = 0; i < series.size(); i++) {
+            int start = (int) interval.periodStart(series.date(i)).toEpochDay();
+            if (start != currentStart) {
+                boundaries[periods++] = i;
+                currentStart = start;
+            }
+        }
+        boundaries[periods] = series.size();
+
+        SeriesRollup rollup = new SeriesRollup(periods);
+        RangeStatistics statistics = series.statistics();
+        for (int p = 0; p < periods; p++) {
+            int from = boundaries[p];
+            int to = boundaries[p + 1];
+            rollup.periodStarts[p] = (int) interval.periodStart(series.date(from)).toEpochDay();
+            rollup.counts[p] = to - from;
+            rollup.opens[p] = series.scaledRate(from);
+            rollup.closes[p] = series.scaledRate(to - 1);
+            rollup.highs[p] = statistics.max(from, to);
+            rollup.lows[p] = statistics.min(from, to);
+            rollup.sums[p] = statistics.sum(from, to);
+        }
+        return rollup;
+    }
+
+    public int size() {
+        return periodStarts.length;
+    }
+
+    public LocalDate periodStart(int idx) {
+        return LocalDate.ofEpochDay(periodStarts[idx]);
+    }
+
+    // Index of the first period starting on or after the given date (size() if there is none)
+    public int firstPeriodOnOrAfter(LocalDate date) {
+        int idx = Arrays.binarySearch(periodStarts, (int) date.toEpochDay());
+        return idx >= 0 ? idx : -idx - 1;
+    }
+
+    // Index just past the last period starting on or before the given date
+    public int endPeriodOnOrBefore(LocalDate date) {
+        int idx = Arrays.binarySearch(periodStarts, (int) date.toEpochDay());
+        return idx >= 0 ? idx + 1 : -idx - 1;
+    }
+
+    public int count(int idx) {
+        return counts[idx];
+    }
+
+    public long open(int idx) {
+        return opens[idx];
+    }
+
+    public long high(int idx) {
+        return highs[idx];
+    }
+
+    public long low(int idx) {
+        return lows[idx];
+    }
+
+    public long close(int idx) {
+        return closes[idx];
+    }
+
+    public long sum(int idx) {
+        return sums[idx];
+    }
+}
@@ -0,0 +1,143 @@
+package com.bundesbank.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.zip.CRC32C;
+
+// Binary image of a RateSnapshot, so a fresh instance can start serving without the database
+// or the network. Layout (big-endian):
+//
+//   header   magic "BBXR" | format version | day count | currency count | CRC32C of the payload (8 bytes)
+//   payload  currency codes (3 ASCII bytes + 1 padding byte each) | epoch days (int per day)
+//            | padding to 8 bytes | scaled rates (long per cell, row-major, MISSING for absent)
+//
+// The columns are exactly the snapshot's arrays, so reading is a checksum pass and a bulk copy.
+public final class SnapshotFile {
+    private static final int MAGIC = 0x42425852; // "BBXR"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    private static final int CODE_BYTES = 4;
+
+    private SnapshotFile() {
+    }
+
+    // Writes to a temporary file next to the target and moves it into place, so readers
+    // never see a partially written snapshot
+    public static void write(RateSnapshot snapshot, Path target) throws IOException {
+        int days = snapshot.dayCount();
+        int currencies = snapshot.currencyCount();
+        int ratesOffset = align8(currencies * CODE_BYTES + days * Integer.BYTES);
+        ByteBuffer payload = ByteBuffer.allocate(ratesOffset + days * currencies * Long.BYTES);
+        for (int c = 0; c < currencies; c++) {
+            byte[] code = snapshot.currency(c).getBytes(StandardCharsets.US_ASCII);
+            if (code.length != 3) {
+                throw new IOException("Currency code is not 3 characters: " + snapshot.currency(c));
+            }
+            payload.put(code).put((byte) 0);
+        }
+        for (int d = 0; d < days; d++) {
+            payload.putInt(snapshot.epochDay(d));
+        }
+        payload.position(ratesOffset);
+        for (int d = 0; d < days; d++) {
+            for (int c = 0; c < currencies; c++) {
+                payload.putLong(snapshot.scaledRate(d, c));
+            }
+        }
+        payload.flip();
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC).putInt(VERSION).putInt(days).putInt(currencies).putLong(crc.getValue());
+        header.flip();
+
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            if (Files.getFileStore(temp).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                // Temp files are owner-only; the snapshot may be baked into an image and read by another user
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-r--r--"));
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (header.hasRemaining() || payload.hasRemaining()) {
+                    channel.write(new ByteBuffer[]{header, payload});
+                }
+                channel.force(false);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Maps the file, verifies header and checksum and builds the snapshot from its columns
+    public static RateSnapshot read(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Snapshot file too short: " + size + " bytes");
+            }
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (file.getInt() != MAGIC) {
+                throw new IOException("Not a rate snapshot file");
+            }
+            int version = file.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot format version " + version);
+            }
+            int days = file.getInt();
+            int currencies = file.getInt();
+            long expectedCrc = file.getLong();
+            int ratesOffset = align8(currencies * CODE_BYTES + days * Integer.BYTES);
+            if (days < 0 || currencies < 0 || size != HEADER_BYTES + ratesOffset + (long) days * currencies * Long.BYTES) {
+                throw new IOException("Snapshot size does not match its header");
+            }
+
+            ByteBuffer payload = file.slice();
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != expectedCrc) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+
+            String[] codes = new String[currencies];
+            byte[] code = new byte[3];
+            for (int c = 0; c < currencies; c++) {
+                payload.get(code).get();
+                codes[c] = new String(code, StandardCharsets.US_ASCII);
+            }
+            int[] epochDays = new int[days];
+            payload.asIntBuffer().get(epochDays);
+            long[] rates = new long[days * currencies];
+            payload.position(ratesOffset);
+            payload.asLongBuffer().get(rates);
+
+            for (int d = 1; d < days; d++) {
+                if (epochDays[d] <= epochDays[d - 1]) {
+                    throw new IOException("Snapshot days are not strictly ascending");
+                }
+            }
+            for (int c = 1; c < currencies; c++) {
+                if (codes[c].compareTo(codes[c - 1]) <= 0) {
+                    throw new IOException("Snapshot currencies are not strictly ascending");
+                }
+            }
+            return RateSnapshot.of(epochDays, codes, rates);
+        }
+    }
+
+    private static int align8(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+}
@@ -0,0 +1,87 @@
+package com.bundesbank.controller;
+
+import com.bundesbank.repository.ExchangeRateBulkLoader;
+import com.bundesbank.service.ExchangeRateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:batch-conversion;DB_CLOSE_DELAY=-1",
+		"exchange-rate.sync.on-startup=false",
+		"exchange-rate.snapshot.file=",
+		"exchange-rate.update-cron=-",
+		"exchange-rate.batch.max-size=3"
+})
+@AutoConfigureMockMvc
+class BatchConversionTests {
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ExchangeRateBulkLoader bulkLoader;
+
+	@Autowired
+	private ExchangeRateService service;
+
+	@BeforeEach
+	void storeRates() {
+		bulkLoader.upsert(Map.of(
+				LocalDate.of(2025, 6, 2), Map.of("USD", new BigDecimal("1.1345"), "JPY", new BigDecimal("157.91")),
+				LocalDate.of(2025, 6, 3), Map.of("USD", new BigDecimal("1.1400"))));
+		service.initializeData();
+	}
+
+	// Failures are reported in place, so the results line up with the requests. Amounts use the same
+	// 6-place inverse rate as /api/convert: 1134.50 x 0.881446 = 1000.0005
+	@Test
+	void resultsKeepRequestOrderWithInlineErrors() throws Exception {
+		mockMvc.perform(post("/api/convert/batch").contentType(MediaType.APPLICATION_JSON).content("["
+						+ "{\"currency\":\"USD\",\"amount\":1134.50,\"date\":\"2025-06-02\"},"
+						+ "{\"currency\":\"JPY\",\"amount\":100,\"date\":\"2025-06-03\"},"
+						+ "{\"currency\":\"USD\",\"amount\":100,\"date\":\"2025-06-01\"}]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(3)))
+				.andExpect(jsonPath("$[0].result.fromCurrency").value("USD"))
+				.andExpect(jsonPath("$[0].result.toCurrency").value("EUR"))
+				.andExpect(jsonPath("$[0].result.convertedAmount").value(1000.0005))
+				.andExpect(jsonPath("$[0].errorCode").doesNotExist())
+				.andExpect(jsonPath("$[1].errorCode").value("CONVERSION_DATA_MISSING"))
+				.andExpect(jsonPath("$[1].result").doesNotExist())
+				.andExpect(jsonPath("$[2].errorCode").value("CONVERSION_DATA_MISSING"));
+	}
+
+	@Test
+	void invalidItemsAreRejectedIndividually() throws Exception {
+		mockMvc.perform(post("/api/convert/batch").contentType(MediaType.APPLICATION_JSON).content("["
+						+ "{\"currency\":\"usd\",\"amount\":100,\"date\":\"2025-06-02\"},"
+						+ "{\"currency\":\"XXX\",\"amount\":100,\"date\":\"2025-06-02\"},"
+						+ "{\"currency\":\"USD\",\"amount\":-1,\"date\":\"2025-06-03\"}]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].errorCode").value("INVALID_CONVERSION_REQUEST"))
+				.andExpect(jsonPath("$[1].errorCode").value("EXCHANGE_RATE_ERROR"))
+				.andExpect(jsonPath("$[2].errorCode").value("INVALID_CONVERSION_REQUEST"))
+				.andExpect(jsonPath("$[2].errorMessage").value("Amount must be positive"));
+	}
+
+	@Test
+	void oversizedBatchIsRejected() throws Exception {
+		String item = "{\"currency\":\"USD\",\"amount\":1,\"date\":\"2025-06-02\"}";
+		mockMvc.perform(post("/api/convert/batch").contentType(MediaType.APPLICATION_JSON)
+						.content("[" + String.join(",", item, item, item, item) + "]"))
+				.andExpect(status().isBadRequest());
+	}
+}
@@ -0,0 +1,108 @@
+package com.bundesbank.controller;
+
+import com.bundesbank.repository.ExchangeRateBulkLoader;
+import com.bundesbank.service.ExchangeRateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:rate-caching;DB_CLOSE_DELAY=-1",
+		"exchange-rate.sync.on-startup=false",
+		"exchange-rate.snapshot.file=",
+		"exchange-rate.update-cron=-"
+})
+@AutoConfigureMockMvc
+class RateCachingTests {
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ExchangeRateBulkLoader bulkLoader;
+
+	@Autowired
+	private ExchangeRateService service;
+
+	@BeforeEach
+	void storeRates() {
+		bulkLoader.upsert(Map.of(
+				LocalDate.of(2025, 6, 5), Map.of("USD", new BigDecimal("1.1400"), "JPY", new BigDecimal("164.21")),
+				LocalDate.of(2025, 6, 6), Map.of("USD", new BigDecimal("1.1416"), "JPY", new BigDecimal("165.31"))));
+		service.initializeData();
+	}
+
+	// A past business day is final, so its response may be cached for good
+	@Test
+	void publishedDateIsImmutable() throws Exception {
+		String etag = etagOf("/api/rates/2025-06-06");
+		mockMvc.perform(get("/api/rates/2025-06-06"))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")));
+
+		mockMvc.perform(get("/api/rates/2025-06-06").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag))
+				.andExpect(content().string(""));
+	}
+
+	@Test
+	void staleEtagGetsTheFullBody() throws Exception {
+		mockMvc.perform(get("/api/rates/2025-06-06").header(HttpHeaders.IF_NONE_MATCH, "\"2025-06-05-0\""))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("1.1416")));
+	}
+
+	// Each day and each currency has its own tag
+	@Test
+	void etagDependsOnDateAndCurrency() throws Exception {
+		assertNotEquals(etagOf("/api/rates/2025-06-05"), etagOf("/api/rates/2025-06-06"));
+		assertNotEquals(etagOf("/api/rates/2025-06-06/USD"), etagOf("/api/rates/2025-06-06/JPY"));
+		assertEquals(etagOf("/api/rates/2025-06-06/USD"), etagOf("/api/rates/2025-06-06/USD"));
+	}
+
+	// A fallback to another day can change once the requested day is published, and the 304 still
+	// tells the client which day the rate came from
+	@Test
+	void fallbackIsCachedBrieflyAndKeepsTheRateDate() throws Exception {
+		String etag = mockMvc.perform(get("/api/rates/2025-06-08/USD").param("policy", "previous"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("X-Rate-Date", "2025-06-06"))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, not(containsString("immutable"))))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/rates/2025-06-08/USD").param("policy", "previous")
+						.header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string("X-Rate-Date", "2025-06-06"));
+	}
+
+	@Test
+	void missingDateHasNoEtag() throws Exception {
+		mockMvc.perform(get("/api/rates/2025-06-07"))
+				.andExpect(status().isBadRequest())
+				.andExpect(header().doesNotExist(HttpHeaders.ETAG));
+	}
+
+	private String etagOf(String path) throws Exception {
+		return mockMvc.perform(get(path))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+	}
+}
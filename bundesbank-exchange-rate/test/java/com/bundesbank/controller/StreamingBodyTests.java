@@ -0,0 +1,86 @@
+package com.bundesbank.controller;
+
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingBodyTests {
+	private static final byte[] ROW = "2025-01-02,1.161400\n".getBytes(StandardCharsets.US_ASCII);
+
+	@Test
+	void publishesTheWholeBodyInChunks() {
+		List<DataBuffer> chunks = StreamingBody.of(out -> {
+			for (int i = 0; i < 10_000; i++) {
+				out.write(ROW);
+			}
+		}).collectList().block();
+
+		long total = 0;
+		for (DataBuffer chunk : chunks) {
+			assertTrue(chunk.readableByteCount() <= StreamingBody.CHUNK_BYTES);
+			total += chunk.readableByteCount();
+		}
+		assertEquals(10_000L * ROW.length, total);
+		assertEquals((total + StreamingBody.CHUNK_BYTES - 1) / StreamingBody.CHUNK_BYTES, chunks.size());
+	}
+
+	// Without demand the writer stops after filling one chunk instead of rendering the whole body
+	@Test
+	void writerWaitsForDemand() throws InterruptedException {
+		AtomicLong written = new AtomicLong();
+		CountDownLatch done = new CountDownLatch(1);
+		List<DataBuffer> received = new CopyOnWriteArrayList<>();
+		BaseSubscriber<DataBuffer> subscriber = new BaseSubscriber<DataBuffer>() {
+			@Override
+			protected void hookOnSubscribe(Subscription subscription) {
+				request(1);
+			}
+
+			@Override
+			protected void hookOnNext(DataBuffer chunk) {
+				received.add(chunk);
+			}
+		};
+		StreamingBody.of(out -> {
+			try {
+				for (int i = 0; i < 1_000_000; i++) {
+					out.write(ROW);
+					written.addAndGet(ROW.length);
+				}
+			} finally {
+				done.countDown();
+			}
+		}).subscribe(subscriber);
+
+		Thread.sleep(300);
+		assertEquals(1, received.size());
+		assertTrue(written.get() < 3L * StreamingBody.CHUNK_BYTES, "written " + written.get());
+
+		// Cancelling ends the writer with an IOException on its next write
+		subscriber.cancel();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void writerFailureIsSignalled() {
+		IOException failure = new IOException("boom");
+		Throwable signalled = StreamingBody.of(out -> {
+			out.write(ROW);
+			throw failure;
+		}).then().materialize().block().getThrowable();
+		assertEquals(failure, signalled);
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.bundesbank.repository;
+
+import com.bundesbank.dto.DataChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterStateRepositoryTests {
+	private ClusterStateRepository repository;
+
+	@BeforeEach
+	void createDatabase() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:cluster-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+		repository = new ClusterStateRepository(new JdbcTemplate(dataSource));
+		repository.createTables();
+	}
+
+	@Test
+	void leaseIsHeldByOneOwnerUntilReleased() {
+		assertTrue(repository.tryAcquireLease("importer", "node-a", Duration.ofMinutes(5)));
+		assertFalse(repository.tryAcquireLease("importer", "node-b", Duration.ofMinutes(5)));
+		assertTrue(repository.tryAcquireLease("importer", "node-a", Duration.ofMinutes(5)));
+
+		repository.releaseLease("importer", "node-b");
+		assertFalse(repository.tryAcquireLease("importer", "node-b", Duration.ofMinutes(5)));
+
+		repository.releaseLease("importer", "node-a");
+		assertTrue(repository.tryAcquireLease("importer", "node-b", Duration.ofMinutes(5)));
+	}
+
+	@Test
+	void expiredLeaseCanBeTakenOver() throws InterruptedException {
+		assertTrue(repository.tryAcquireLease("importer", "node-a", Duration.ofMillis(50)));
+		Thread.sleep(200);
+		assertTrue(repository.tryAcquireLease("importer", "node-b", Duration.ofMinutes(5)));
+		assertFalse(repository.tryAcquireLease("importer", "node-a", Duration.ofMinutes(5)));
+	}
+
+	@Test
+	void leasesWithDifferentNamesAreIndependent() {
+		assertTrue(repository.tryAcquireLease("importer", "node-a", Duration.ofMinutes(5)));
+		assertTrue(repository.tryAcquireLease("compaction", "node-b", Duration.ofMinutes(5)));
+	}
+
+	@Test
+	void changesSinceFoldsLaterVersionsIntoOneRange() {
+		assertEquals(0, repository.latestVersion());
+		assertEquals(Optional.empty(), repository.changesSince(0));
+
+		long first = repository.recordVersion(LocalDate.of(2020, 3, 2), LocalDate.of(2020, 3, 6), 40, "node-a");
+		long second = repository.recordVersion(LocalDate.of(2019, 12, 30), LocalDate.of(2020, 1, 3), 30, "node-a");
+		long third = repository.recordVersion(LocalDate.of(2020, 3, 9), LocalDate.of(2020, 3, 9), 8, "node-b");
+		assertTrue(first < second && second < third);
+		assertEquals(third, repository.latestVersion());
+
+		DataChange all = repository.changesSince(0).orElseThrow();
+		assertEquals(third, all.getVersion());
+		assertEquals(LocalDate.of(2019, 12, 30), all.getFrom());
+		assertEquals(LocalDate.of(2020, 3, 9), all.getTo());
+
+		DataChange latest = repository.changesSince(second).orElseThrow();
+		assertEquals(LocalDate.of(2020, 3, 9), latest.getFrom());
+		assertEquals(LocalDate.of(2020, 3, 9), latest.getTo());
+
+		assertEquals(Optional.empty(), repository.changesSince(third));
+	}
+}
@@ -0,0 +1,65 @@
+package com.bundesbank.service;
+
+import com.bundesbank.dto.ConversionRequest;
+import com.bundesbank.repository.ExchangeRateBulkLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:cross-conversion;DB_CLOSE_DELAY=-1",
+		"exchange-rate.sync.on-startup=false",
+		"exchange-rate.snapshot.file=",
+		"exchange-rate.update-cron=-"
+})
+class CrossConversionTests {
+	private static final LocalDate DATE = LocalDate.of(2025, 6, 2);
+
+	@Autowired
+	private ExchangeRateBulkLoader bulkLoader;
+
+	@Autowired
+	private ExchangeRateService service;
+
+	@BeforeEach
+	void storeRates() {
+		Map<String, BigDecimal> rates = new HashMap<>();
+		rates.put("IDR", new BigDecimal("17654.32"));
+		rates.put("JPY", new BigDecimal("157.91"));
+		rates.put("KRW", new BigDecimal("1570.52"));
+		rates.put("USD", new BigDecimal("1.1345"));
+		bulkLoader.upsert(Map.of(DATE, rates));
+		service.initializeData();
+	}
+
+	// The cross rate must not be built from the 6-place inverse of a large rate
+	@Test
+	void highRateSourceToForeignCurrency() {
+		assertEquals(new BigDecimal("8944.5529"), convert("IDR", "1000000", "JPY"));
+		assertEquals(new BigDecimal("722.3722"), convert("KRW", "1000000", "USD"));
+	}
+
+	// Conversions to EUR keep the rounding of 1 / rate to 6 places
+	@Test
+	void highRateSourceToEur() {
+		assertEquals(new BigDecimal("57.0000"), convert("IDR", "1000000", "EUR"));
+	}
+
+	@Test
+	void eurToForeignCurrency() {
+		assertEquals(new BigDecimal("17654320.0000"), convert("EUR", "1000", "IDR"));
+	}
+
+	private BigDecimal convert(String from, String amount, String to) {
+		return service.convert(new ConversionRequest(from, new BigDecimal(amount), DATE), to).getConvertedAmount();
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.bundesbank.service;
+
+import com.bundesbank.dto.RateChangeEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateChangeFeedTests {
+	private static final LocalDate DATE = LocalDate.of(2025, 1, 2);
+
+	// Four buffered events, at most two rates per event, no heartbeats during a test
+	private final RateChangeFeed feed = new RateChangeFeed(4, 2, Duration.ofHours(1));
+
+	@Test
+	void resumesAfterTheLastReceivedEvent() {
+		feed.startAt(100);
+		publish(3, 0);
+
+		List<RateChangeEvent> events = receive(101L, 2);
+		assertEquals(102, events.get(0).getSequence());
+		assertEquals(103, events.get(1).getSequence());
+		assertFalse(events.get(0).isReset());
+		assertEquals(DATE, events.get(0).getChanges().get(0).getDate());
+	}
+
+	@Test
+	void idsOlderThanTheBufferGetAReset() {
+		feed.startAt(100);
+		publish(6, 0);
+
+		List<RateChangeEvent> events = receive(101L, 1);
+		assertTrue(events.get(0).isReset());
+		assertEquals(106, events.get(0).getSequence());
+
+		// The oldest buffered event follows on 102, so resuming from there is still exact
+		List<RateChangeEvent> resumed = receive(102L, 4);
+		for (int i = 0; i < 4; i++) {
+			assertFalse(resumed.get(i).isReset());
+			assertEquals(103 + i, resumed.get(i).getSequence());
+		}
+	}
+
+	// An id this node has not issued yet, e.g. from an earlier run of it
+	@Test
+	void idsFromTheFutureGetAReset() {
+		feed.startAt(100);
+		publish(1, 0);
+
+		RateChangeEvent event = receive(500L, 1).get(0);
+		assertTrue(event.isReset());
+		assertEquals(101, event.getSequence());
+	}
+
+	// In clustered mode ids are shared data versions, so another replica may have issued one in between
+	@Test
+	void resumesFromAnIdIssuedByAnotherReplica() {
+		feed.startAt(100);
+		publish(1, 105);
+		publish(1, 110);
+
+		RateChangeEvent event = receive(107L, 1).get(0);
+		assertFalse(event.isReset());
+		assertEquals(110, event.getSequence());
+	}
+
+	@Test
+	void largeBatchesAreSentAsAReset() {
+		feed.startAt(100);
+		Map<String, BigDecimal> rates = new HashMap<>();
+		rates.put("USD", new BigDecimal("1.0354"));
+		rates.put("GBP", new BigDecimal("0.8303"));
+		rates.put("JPY", new BigDecimal("162.74"));
+		feed.publish(Collections.singletonMap(DATE, rates), () -> 0);
+
+		RateChangeEvent event = receive(100L, 1).get(0);
+		assertTrue(event.isReset());
+		assertEquals(101, event.getSequence());
+	}
+
+	private void publish(int events, long version) {
+		for (int i = 0; i < events; i++) {
+			feed.publish(Collections.singletonMap(DATE, Collections.singletonMap("USD", new BigDecimal("1.0354"))),
+					() -> version);
+		}
+	}
+
+	private List<RateChangeEvent> receive(Long afterId, int count) {
+		List<RateChangeEvent> events = new ArrayList<>();
+		for (ServerSentEvent<RateChangeEvent> event : feed.subscribe(afterId).take(count).collectList()
+				.block(Duration.ofSeconds(5))) {
+			assertEquals(Long.toString(event.data().getSequence()), event.id());
+			events.add(event.data());
+		}
+		return events;
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.bundesbank.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SdmxJsonParserTests {
+	private static final String STRUCTURE = "\"structure\":{\"name\":\"Exchange rates\",\"dimensions\":{"
+			+ "\"series\":[{\"id\":\"BBK_STD_CURRENCY\",\"values\":[{\"id\":\"USD\"}]}],"
+			+ "\"observation\":[{\"id\":\"TIME_PERIOD\",\"name\":\"Time\",\"values\":["
+			+ "{\"id\":\"2025-01-02\"},{\"id\":\"2025-01-03\"},{\"id\":\"2025-01-06\"}]}]}}";
+	private static final String DATA_SETS = "\"dataSets\":[{\"action\":\"Information\",\"series\":{\"0:0:0:0:0\":"
+			+ "{\"attributes\":[0],\"observations\":{\"0\":[1.0354,0],\"1\":[\"1.0299\"],\"2\":[1.0426,null,[1]]}}}}]";
+
+	private final SdmxJsonParser parser = new SdmxJsonParser(new ObjectMapper());
+
+	@Test
+	void structureBeforeDataSets() throws IOException {
+		Map<LocalDate, BigDecimal> rates = new LinkedHashMap<>();
+		int emitted = parse("{\"header\":{\"id\":\"x\"},\"data\":{" + STRUCTURE + "," + DATA_SETS + "}}", rates);
+
+		assertEquals(3, emitted);
+		assertEquals(expected(), rates);
+	}
+
+	// Observations arriving before the structure block are buffered and emitted once the periods are known
+	@Test
+	void dataSetsBeforeStructure() throws IOException {
+		Map<LocalDate, BigDecimal> rates = new LinkedHashMap<>();
+		int emitted = parse("{\"data\":{" + DATA_SETS + "," + STRUCTURE + "}}", rates);
+
+		assertEquals(3, emitted);
+		assertEquals(expected(), rates);
+	}
+
+	// Buffered observations are still dropped if the response has no TIME_PERIOD dimension
+	@Test
+	void dataSetsWithoutStructure() throws IOException {
+		Map<LocalDate, BigDecimal> rates = new LinkedHashMap<>();
+		assertEquals(0, parse("{\"data\":{" + DATA_SETS + "}}", rates));
+		assertEquals(0, rates.size());
+	}
+
+	@Test
+	void skipsIndexesOutsideTheTimeDimension() throws IOException {
+		String dataSets = "\"dataSets\":[{\"series\":{\"0\":{\"observations\":{\"1\":[1.0299],\"7\":[9.9]}}}}]";
+		Map<LocalDate, BigDecimal> rates = new LinkedHashMap<>();
+		assertEquals(1, parse("{\"data\":{" + dataSets + "," + STRUCTURE + "}}", rates));
+		assertEquals(Map.of(LocalDate.of(2025, 1, 3), new BigDecimal("1.0299")), rates);
+	}
+
+	private int parse(String json, Map<LocalDate, BigDecimal> rates) throws IOException {
+		return parser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), "USD",
+				(date, currency, rate) -> {
+					assertEquals("USD", currency);
+					rates.put(date, rate);
+				});
+	}
+
+	private static Map<LocalDate, BigDecimal> expected() {
+		Map<LocalDate, BigDecimal> rates = new LinkedHashMap<>();
+		rates.put(LocalDate.of(2025, 1, 2), new BigDecimal("1.0354"));
+		rates.put(LocalDate.of(2025, 1, 3), new BigDecimal("1.0299"));
+		rates.put(LocalDate.of(2025, 1, 6), new BigDecimal("1.0426"));
+		return rates;
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.bundesbank.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CurrencyRegistryTests {
+	private final CurrencyRegistry registry = new CurrencyRegistry(
+			Arrays.asList("USD", " gbp", "RON", "USD"),
+			Arrays.asList("ROL", "CYP"),
+			Arrays.asList("CYP:/2007-12-31", "ROL:/2005-06-30", " ron : 2005-07-01/"));
+
+	@Test
+	void activeCodesFirstThenLegacyWithoutDuplicates() {
+		assertEquals(Arrays.asList("USD", "GBP", "RON", "ROL", "CYP"), registry.codes());
+		assertEquals(Arrays.asList("USD", "GBP", "RON"), registry.activeCodes());
+		assertFalse(registry.get(registry.indexOf("CYP")).isActive());
+	}
+
+	@Test
+	void lookupIsCaseInsensitive() {
+		assertEquals(1, registry.indexOf("gBp"));
+		assertSame("GBP", registry.canonical("gbp"));
+		assertEquals(-1, registry.indexOf("JPY"));
+		assertEquals(-1, registry.indexOf("US"));
+		assertEquals(-1, registry.indexOf("U$D"));
+		assertNull(registry.canonical(null));
+		assertTrue(registry.find("EUR").isEmpty());
+	}
+
+	@Test
+	void validityIntervals() {
+		CurrencyRegistry.Metadata cyp = registry.find("CYP").orElseThrow();
+		assertTrue(cyp.isQuotedOn(LocalDate.of(2007, 12, 31)));
+		assertFalse(cyp.isQuotedOn(LocalDate.of(2008, 1, 2)));
+		assertEquals(LocalDate.of(2007, 12, 31), cyp.fetchEnd(LocalDate.of(2025, 1, 2)));
+
+		CurrencyRegistry.Metadata ron = registry.find("RON").orElseThrow();
+		assertFalse(ron.isQuotedOn(LocalDate.of(2005, 6, 30)));
+		assertTrue(ron.isQuotedOn(LocalDate.of(2005, 7, 1)));
+		assertEquals(LocalDate.of(2025, 1, 2), ron.fetchEnd(LocalDate.of(2025, 1, 2)));
+
+		CurrencyRegistry.Metadata usd = registry.find("USD").orElseThrow();
+		assertTrue(usd.isQuotedOn(LocalDate.of(1999, 1, 4)));
+		assertNull(usd.getValidFrom());
+		assertNull(usd.getValidTo());
+	}
+
+	// Outside the interval a lookup starts from the edge it walks towards, or cannot match at all
+	@Test
+	void lookupDateOutsideTheInterval() {
+		CurrencyRegistry.Metadata cyp = registry.find("CYP").orElseThrow();
+		LocalDate after = LocalDate.of(2010, 5, 3);
+		assertEquals(LocalDate.of(2007, 12, 31), cyp.lookupDate(after, DateLookupPolicy.PREVIOUS));
+		assertNull(cyp.lookupDate(after, DateLookupPolicy.NEXT));
+		assertNull(cyp.lookupDate(after, DateLookupPolicy.STRICT));
+
+		CurrencyRegistry.Metadata ron = registry.find("RON").orElseThrow();
+		LocalDate before = LocalDate.of(2004, 3, 1);
+		assertEquals(LocalDate.of(2005, 7, 1), ron.lookupDate(before, DateLookupPolicy.NEXT));
+		assertNull(ron.lookupDate(before, DateLookupPolicy.PREVIOUS));
+		assertEquals(LocalDate.of(2006, 3, 1), ron.lookupDate(LocalDate.of(2006, 3, 1), DateLookupPolicy.STRICT));
+	}
+
+	@Test
+	void rejectsInvalidConfiguration() {
+		List<String> none = Collections.emptyList();
+		assertThrows(IllegalArgumentException.class,
+				() -> new CurrencyRegistry(Collections.singletonList("US1"), none, none));
+		assertThrows(IllegalArgumentException.class,
+				() -> new CurrencyRegistry(Collections.singletonList("USD"), none, Collections.singletonList("CYP")));
+		assertThrows(IllegalArgumentException.class,
+				() -> new CurrencyRegistry(Collections.singletonList("USD"), none,
+						Collections.singletonList("CYP:2007-12-31")));
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.bundesbank.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RangeStatisticsTests {
+
+	// Every range of series whose lengths are and are not powers of two, against a plain scan
+	@Test
+	void matchesAScanForEveryRange() {
+		Random random = new Random(42);
+		for (int size : new int[]{1, 2, 3, 7, 8, 13, 64, 100}) {
+			long[] rates = new long[size];
+			for (int i = 0; i < size; i++) {
+				rates[i] = 1_000_000 + random.nextInt(200_000) - 100_000;
+			}
+			RangeStatistics statistics = new RangeStatistics(rates);
+			for (int from = 0; from < size; from++) {
+				for (int to = from + 1; to <= size; to++) {
+					String range = size + ": [" + from + ", " + to + ")";
+					long sum = 0;
+					long min = Long.MAX_VALUE;
+					long max = Long.MIN_VALUE;
+					for (int i = from; i < to; i++) {
+						sum += rates[i];
+						min = Math.min(min, rates[i]);
+						max = Math.max(max, rates[i]);
+					}
+					assertEquals(sum, statistics.sum(from, to), range);
+					assertEquals(min, statistics.min(from, to), range);
+					assertEquals(max, statistics.max(from, to), range);
+					assertEquals(sampleVariance(rates, from, to), statistics.variance(from, to), 1e-12, range);
+				}
+			}
+		}
+	}
+
+	// Large, nearly equal rates must not lose the variance to cancellation
+	@Test
+	void varianceOfLargeNearlyEqualRates() {
+		long[] rates = {17_654_320_000L, 17_654_330_000L, 17_654_310_000L, 17_654_320_000L};
+		assertEquals(sampleVariance(rates, 0, rates.length), new RangeStatistics(rates).variance(0, rates.length), 1e-9);
+	}
+
+	@Test
+	void varianceOfASingleRateIsZero() {
+		assertEquals(0, new RangeStatistics(new long[]{1_134_500}).variance(0, 1));
+	}
+
+	private static double sampleVariance(long[] rates, int from, int to) {
+		int n = to - from;
+		if (n < 2) {
+			return 0;
+		}
+		double mean = 0;
+		for (int i = from; i < to; i++) {
+			mean += rates[i] / 1e6;
+		}
+		mean /= n;
+		double squares = 0;
+		for (int i = from; i < to; i++) {
+			double deviation = rates[i] / 1e6 - mean;
+			squares += deviation * deviation;
+		}
+		return squares / (n - 1);
+	}
+
+}
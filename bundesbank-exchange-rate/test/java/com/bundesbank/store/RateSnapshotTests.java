@@ -0,0 +1,62 @@
+package com.bundesbank.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateSnapshotTests {
+	private static final LocalDate DATE = LocalDate.of(2025, 6, 2);
+
+	// 0.000109 is the smallest rate whose inverse at INVERSE_SCALE still fits in a long
+	@Test
+	void preciseInverseAtTheLowerBound() {
+		assertEquals(9174311926605504587L, preciseInverse("0.000109"));
+		assertEquals(RateSnapshot.MISSING, preciseInverse("0.000108"));
+		assertEquals(RateSnapshot.MISSING, preciseInverse("0.000001"));
+		assertEquals(RateSnapshot.MISSING, preciseInverse("0"));
+	}
+
+	@Test
+	void preciseInverseMatchesBigDecimalDivision() {
+		String[] rates = {"0.000109", "0.000110", "0.000999", "1", "1.5", "3", "7", "8", "1.1345", "157.91",
+				"17654.32", "123456789.123456", "9223372036.854775"};
+		for (String rate : rates) {
+			long expected = BigDecimal.ONE.divide(new BigDecimal(rate), RateSnapshot.INVERSE_SCALE, RoundingMode.HALF_UP)
+					.unscaledValue().longValueExact();
+			assertEquals(expected, preciseInverse(rate), rate);
+		}
+	}
+
+	// Above Long.MAX_VALUE / 1000 the long division would overflow; conversions fall back to BigDecimal
+	@Test
+	void preciseInverseAboveTheUpperBound() {
+		assertEquals(RateSnapshot.MISSING, preciseInverse("9223372036.854776"));
+	}
+
+	@Test
+	void inverseRoundsHalfUpToSixPlaces() {
+		RateSnapshot snapshot = RateSnapshot.builder().put(DATE, "AAA", new BigDecimal("1.5"))
+				.put(DATE, "BBB", new BigDecimal("8")).build();
+		assertEquals(new BigDecimal("0.666667"), snapshot.inverseRate(0, snapshot.currencyIndex("AAA")));
+		assertEquals(new BigDecimal("0.125000"), snapshot.inverseRate(0, snapshot.currencyIndex("BBB")));
+	}
+
+	@Test
+	void missingRatesHaveNoInverse() {
+		RateSnapshot snapshot = RateSnapshot.builder().put(DATE, "AAA", BigDecimal.ONE)
+				.put(DATE.plusDays(1), "BBB", BigDecimal.ONE).build();
+		int aaa = snapshot.currencyIndex("AAA");
+		assertEquals(RateSnapshot.MISSING, snapshot.scaledInverseRate(1, aaa));
+		assertEquals(RateSnapshot.MISSING, snapshot.scaledPreciseInverseRate(1, aaa));
+	}
+
+	private static long preciseInverse(String rate) {
+		RateSnapshot snapshot = RateSnapshot.builder().put(DATE, "AAA", new BigDecimal(rate)).build();
+		return snapshot.scaledPreciseInverseRate(0, 0);
+	}
+
+}
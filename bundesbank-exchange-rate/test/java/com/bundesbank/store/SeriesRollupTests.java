@@ -0,0 +1,67 @@
+package com.bundesbank.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SeriesRollupTests {
+
+	// Tue 2024-12-31 to Tue 2025-01-14, skipping the weekends and New Year's Day
+	private static final String[][] RATES = {
+			{"2024-12-31", "1.0389"}, {"2025-01-02", "1.0321"}, {"2025-01-03", "1.0299"},
+			{"2025-01-06", "1.0426"}, {"2025-01-07", "1.0393"}, {"2025-01-10", "1.0304"},
+			{"2025-01-13", "1.0224"}, {"2025-01-14", "1.0245"}};
+
+	@Test
+	void weeksStartOnMonday() {
+		SeriesRollup rollup = series().rollup(RollupInterval.WEEK);
+
+		assertEquals(3, rollup.size());
+		assertEquals(LocalDate.of(2024, 12, 30), rollup.periodStart(0));
+		assertEquals(LocalDate.of(2025, 1, 6), rollup.periodStart(1));
+		assertEquals(LocalDate.of(2025, 1, 13), rollup.periodStart(2));
+		assertEquals(3, rollup.count(0));
+		assertEquals(1_038_900, rollup.open(0));
+		assertEquals(1_029_900, rollup.close(0));
+		assertEquals(1_038_900, rollup.high(0));
+		assertEquals(1_029_900, rollup.low(0));
+		assertEquals(1_038_900 + 1_032_100 + 1_029_900, rollup.sum(0));
+	}
+
+	@Test
+	void monthsAndYearsSplitAtTheTurnOfTheYear() {
+		SeriesRollup months = series().rollup(RollupInterval.MONTH);
+		assertEquals(2, months.size());
+		assertEquals(1, months.count(0));
+		assertEquals(7, months.count(1));
+		assertEquals(1_032_100, months.open(1));
+		assertEquals(1_024_500, months.close(1));
+		assertEquals(1_042_600, months.high(1));
+		assertEquals(1_022_400, months.low(1));
+
+		SeriesRollup years = series().rollup(RollupInterval.YEAR);
+		assertEquals(LocalDate.of(2024, 1, 1), years.periodStart(0));
+		assertEquals(LocalDate.of(2025, 1, 1), years.periodStart(1));
+	}
+
+	@Test
+	void periodLookupByDate() {
+		SeriesRollup rollup = series().rollup(RollupInterval.WEEK);
+		assertEquals(1, rollup.firstPeriodOnOrAfter(LocalDate.of(2025, 1, 1)));
+		assertEquals(1, rollup.firstPeriodOnOrAfter(LocalDate.of(2025, 1, 6)));
+		assertEquals(2, rollup.endPeriodOnOrBefore(LocalDate.of(2025, 1, 12)));
+		assertEquals(0, rollup.endPeriodOnOrBefore(LocalDate.of(2024, 12, 1)));
+	}
+
+	private static CurrencySeries series() {
+		RateSnapshot.Builder builder = RateSnapshot.builder();
+		for (String[] rate : RATES) {
+			builder.put(LocalDate.parse(rate[0]), "USD", new BigDecimal(rate[1]));
+		}
+		return builder.build().series(0);
+	}
+
+}
@@ -0,0 +1,108 @@
+package com.bundesbank.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotFileTests {
+	private static final LocalDate DATE = LocalDate.of(2025, 6, 2);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void roundTripKeepsDaysCurrenciesAndRates() throws IOException {
+		RateSnapshot snapshot = RateSnapshot.builder()
+				.put(DATE, "USD", new BigDecimal("1.1345"))
+				.put(DATE, "JPY", new BigDecimal("157.91"))
+				.put(DATE.plusDays(1), "USD", new BigDecimal("1.1402"))
+				.put(DATE.plusDays(3), "IDR", new BigDecimal("17654.32"))
+				.build();
+		Path file = directory.resolve("rates.snapshot");
+		SnapshotFile.write(snapshot, file);
+
+		RateSnapshot read = SnapshotFile.read(file);
+		assertEquals(snapshot.dayCount(), read.dayCount());
+		assertEquals(snapshot.currencyCount(), read.currencyCount());
+		for (int c = 0; c < snapshot.currencyCount(); c++) {
+			assertEquals(snapshot.currency(c), read.currency(c));
+		}
+		for (int d = 0; d < snapshot.dayCount(); d++) {
+			assertEquals(snapshot.date(d), read.date(d));
+			for (int c = 0; c < snapshot.currencyCount(); c++) {
+				assertEquals(snapshot.scaledRate(d, c), read.scaledRate(d, c));
+				assertEquals(snapshot.scaledPreciseInverseRate(d, c), read.scaledPreciseInverseRate(d, c));
+			}
+		}
+		assertEquals(RateSnapshot.MISSING, read.scaledRate(read.dayIndex(DATE), read.currencyIndex("IDR")));
+	}
+
+	@Test
+	void roundTripOfAnEmptySnapshot() throws IOException {
+		Path file = directory.resolve("rates.snapshot");
+		SnapshotFile.write(RateSnapshot.empty(), file);
+		assertTrue(SnapshotFile.read(file).isEmpty());
+	}
+
+	// The temporary file is moved into place, replacing the previous snapshot
+	@Test
+	void rewriteReplacesTheFileAndLeavesNoTemporaryFiles() throws IOException {
+		Path file = directory.resolve("rates.snapshot");
+		SnapshotFile.write(RateSnapshot.builder().put(DATE, "USD", BigDecimal.ONE).build(), file);
+		SnapshotFile.write(RateSnapshot.builder().put(DATE, "GBP", BigDecimal.ONE).build(), file);
+
+		assertEquals("GBP", SnapshotFile.read(file).currency(0));
+		try (Stream<Path> files = Files.list(directory)) {
+			assertArrayEquals(new Object[]{file}, files.toArray());
+		}
+	}
+
+	@Test
+	void rejectsACorruptedPayload() throws IOException {
+		Path file = directory.resolve("rates.snapshot");
+		SnapshotFile.write(RateSnapshot.builder().put(DATE, "USD", new BigDecimal("1.1345")).build(), file);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer last = ByteBuffer.allocate(1);
+			channel.read(last, channel.size() - 1);
+			last.put(0, (byte) (last.get(0) ^ 1)).rewind();
+			channel.write(last, channel.size() - 1);
+		}
+
+		IOException ex = assertThrows(IOException.class, () -> SnapshotFile.read(file));
+		assertEquals("Snapshot checksum mismatch", ex.getMessage());
+	}
+
+	@Test
+	void rejectsATruncatedFile() throws IOException {
+		Path file = directory.resolve("rates.snapshot");
+		SnapshotFile.write(RateSnapshot.builder().put(DATE, "USD", new BigDecimal("1.1345")).build(), file);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - Long.BYTES);
+		}
+
+		IOException ex = assertThrows(IOException.class, () -> SnapshotFile.read(file));
+		assertEquals("Snapshot size does not match its header", ex.getMessage());
+	}
+
+	@Test
+	void rejectsOtherFiles() throws IOException {
+		Path file = Files.write(directory.resolve("rates.snapshot"), new byte[32]);
+		IOException ex = assertThrows(IOException.class, () -> SnapshotFile.read(file));
+		assertEquals("Not a rate snapshot file", ex.getMessage());
+	}
+
+}